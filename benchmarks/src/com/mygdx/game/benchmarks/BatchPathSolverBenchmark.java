@@ -0,0 +1,59 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.BatchPathSolver;
+import com.mygdx.game.GameMap;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves a batch of random queries on one map with a varying number of workers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchPathSolverBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"256"})
+    public int queries;
+
+    private BatchPathSolver solver;
+    private int[] starts;
+    private int[] goals;
+    private PathResult[] results;
+
+    @Setup
+    public void setup() {
+        int size = 128;
+        GameMap map = MapGenerator.generate(size, size, 0.2f);
+        Random random = new Random(MapGenerator.SEED);
+        starts = new int[queries];
+        goals = new int[queries];
+        results = new PathResult[queries];
+        for (int i = 0; i < queries; i++) {
+            starts[i] = random.nextInt(size * size);
+            goals[i] = random.nextInt(size * size);
+            results[i] = new PathResult();
+        }
+        solver = new BatchPathSolver(map, threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        solver.dispose();
+    }
+
+    @Benchmark
+    public PathResult[] solve() {
+        solver.solve(starts, goals, results);
+        return results;
+    }
+}
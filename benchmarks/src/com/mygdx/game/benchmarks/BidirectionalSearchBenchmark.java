@@ -0,0 +1,55 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GameMap;
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares A* with bidirectional A* on random and corridor maps. The expansions are reported
+ * through {@link ExpansionCounters} so the reduction can be read next to the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BidirectionalSearchBenchmark {
+
+    @Param({"128", "512"})
+    public int size;
+
+    @Param({"random", "serpentine"})
+    public String map;
+
+    @Param({"true", "false"})
+    public boolean bidirectional;
+
+    private PathFinder pathFinder;
+    private PathResult result;
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        GameMap gameMap = map.equals("serpentine")
+                ? MapGenerator.serpentine(size, size)
+                : MapGenerator.generate(size, size, 0.2f);
+        GridMap grid = GridMap.copyOf(gameMap);
+        pathFinder = new PathFinder(grid);
+        pathFinder.setJumpPointSearchEnabled(false);
+        pathFinder.setBidirectional(bidirectional);
+        result = new PathResult();
+        start = grid.getIndex(0, 0);
+        goal = grid.getIndex(size - 1, size - 1);
+    }
+
+    @Benchmark
+    public PathResult findPath(ExpansionCounters counters) {
+        return counters.record(pathFinder.findPath(start, goal, result));
+    }
+}
@@ -0,0 +1,67 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A query towards a walled-off goal, once rejected by the component index and once searched
+ * step by step until the open list runs dry, plus the upkeep of the index for one wall edit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConnectedComponentsBenchmark {
+
+    @Param({"256"})
+    public int size;
+
+    private GridMap map;
+    private PathFinder pathFinder;
+    private PathResult result;
+    private int start;
+    private int goal;
+    private int editedCell;
+
+    @Setup
+    public void setup() {
+        map = GridMap.copyOf(MapGenerator.generate(size, size, 0.2f));
+        start = 0;
+        goal = map.size() - 1;
+        // wall the goal corner off
+        map.setBlocked(map.getIndex(size - 2, size - 1), true);
+        map.setBlocked(map.getIndex(size - 1, size - 2), true);
+        editedCell = map.getIndex(size / 2, size / 2);
+        pathFinder = new PathFinder(map);
+        pathFinder.setReachabilityCheckEnabled(true);
+        result = new PathResult();
+        map.getConnectedComponents();
+    }
+
+    @Benchmark
+    public PathResult rejectUnreachable() {
+        return pathFinder.findPath(start, goal, result);
+    }
+
+    @Benchmark
+    public int exhaustUnreachable() {
+        pathFinder.start(start, goal);
+        while (pathFinder.nextFrontier()) {
+            while (pathFinder.nextNeighbor()) {
+            }
+        }
+        return pathFinder.getExpansions();
+    }
+
+    @Benchmark
+    public GridMap editWall() {
+        map.setBlocked(editedCell, !map.isBlocked(editedCell));
+        return map;
+    }
+}
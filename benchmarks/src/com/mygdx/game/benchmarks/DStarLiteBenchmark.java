@@ -0,0 +1,67 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.DStarLite;
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replans corner to corner after a "door" on the current route opens or closes, once with a
+ * fresh A* search and once with D* Lite repairing its previous search. The door sits close to
+ * the agent, where an agent notices changes; edits near the goal are D* Lite's worst case.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DStarLiteBenchmark {
+
+    @Param({"256"})
+    public int size;
+
+    @Param({"0.2"})
+    public float density;
+
+    private GridMap map;
+    private PathFinder pathFinder;
+    private DStarLite dStarLite;
+    private PathResult result;
+    private int start;
+    private int goal;
+    private int door;
+
+    @Setup
+    public void setup() {
+        map = GridMap.copyOf(MapGenerator.generate(size, size, density));
+        pathFinder = new PathFinder(map);
+        dStarLite = new DStarLite(map);
+        result = new PathResult();
+        start = 0;
+        goal = map.size() - 1;
+        pathFinder.findPath(start, goal, result);
+        door = result.getPath().get(result.getPath().size / 8);
+        dStarLite.findPath(start, goal, result);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dStarLite.dispose();
+    }
+
+    @Benchmark
+    public PathResult replanFromScratch() {
+        map.setBlocked(door, !map.isBlocked(door));
+        return pathFinder.findPath(start, goal, result);
+    }
+
+    @Benchmark
+    public PathResult replanIncremental() {
+        map.setBlocked(door, !map.isBlocked(door));
+        return dStarLite.findPath(start, goal, result);
+    }
+}
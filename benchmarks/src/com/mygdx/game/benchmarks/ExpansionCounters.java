@@ -0,0 +1,32 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results reported by JMH next to the timings: the frontier expansions and the
+ * searches of an iteration, so expansions per search can be read off beside the time.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class ExpansionCounters {
+
+    public long expansions;
+    public long searches;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        expansions = 0;
+        searches = 0;
+    }
+
+    PathResult record(PathResult result) {
+        expansions += result.getExpansions();
+        searches++;
+        return result;
+    }
+}
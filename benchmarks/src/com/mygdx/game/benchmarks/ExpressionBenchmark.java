@@ -0,0 +1,70 @@
+package com.mygdx.game.benchmarks;
+
+import com.udojava.evalex.Expression;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the cost of a heuristic into creating the expression, parsing it and evaluating it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+
+    @Param({
+            "ABS(nodeX - goalX) + ABS(nodeY - goalY)",
+            "SQRT((nodeX - goalX)^2 + (nodeY - goalY)^2)",
+            "MAX(ABS(nodeX - goalX), ABS(nodeY - goalY))"
+    })
+    public String heuristic;
+
+    private Expression parsed;
+    private BigDecimal nodeX;
+    private BigDecimal nodeY;
+    private BigDecimal goalX;
+    private BigDecimal goalY;
+
+    @Setup
+    public void setup() {
+        nodeX = new BigDecimal(3);
+        nodeY = new BigDecimal(11);
+        goalX = new BigDecimal(15);
+        goalY = new BigDecimal(10);
+        parsed = withVariables(new Expression(heuristic));
+        parsed.eval();
+    }
+
+    private Expression withVariables(Expression expression) {
+        return expression
+                .with("nodeX", nodeX)
+                .with("nodeY", nodeY)
+                .with("goalX", goalX)
+                .with("goalY", goalY);
+    }
+
+    @Benchmark
+    public Expression create() {
+        return new Expression(heuristic);
+    }
+
+    @Benchmark
+    public String parse() {
+        return new Expression(heuristic).toRPN();
+    }
+
+    @Benchmark
+    public BigDecimal eval() {
+        return withVariables(parsed).eval();
+    }
+
+    @Benchmark
+    public BigDecimal parseAndEval() {
+        return withVariables(new Expression(heuristic)).eval();
+    }
+}
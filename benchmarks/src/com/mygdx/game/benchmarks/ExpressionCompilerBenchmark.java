@@ -0,0 +1,108 @@
+package com.mygdx.game.benchmarks;
+
+import com.udojava.evalex.CompiledExpression;
+import com.udojava.evalex.DoubleEvaluator;
+import com.udojava.evalex.Expression;
+import com.udojava.evalex.ExpressionCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the interpreted BigDecimal and double evaluation of a heuristic, with the variables
+ * set by name and taken from slot arrays, with the class generated by {@link ExpressionCompiler}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionCompilerBenchmark {
+
+    @Param({
+            "ABS(nodeX - goalX) + ABS(nodeY - goalY)",
+            "SQRT((nodeX - goalX)^2 + (nodeY - goalY)^2)",
+            "MAX(ABS(nodeX - goalX), ABS(nodeY - goalY))",
+            "IF(nodeX = goalX, ABS(nodeY - goalY), ABS(nodeX - goalX) * 1.001 + ABS(nodeY - goalY))"
+    })
+    public String heuristic;
+
+    private Expression expression;
+    private DoubleEvaluator evaluator;
+    private Expression slotExpression;
+    private DoubleEvaluator slotEvaluator;
+    private CompiledExpression compiled;
+    private final BigDecimal[] bigDecimalSlots = new BigDecimal[4];
+    private final double[] doubleSlots = new double[4];
+
+    private int nodeX;
+    private int nodeY;
+
+    @Setup
+    public void setup() {
+        expression = new Expression(heuristic)
+                .with("nodeX", BigDecimal.ZERO)
+                .with("nodeY", BigDecimal.ZERO)
+                .with("goalX", BigDecimal.ZERO)
+                .with("goalY", BigDecimal.ZERO);
+        evaluator = expression.toDoubleEvaluator();
+        slotExpression = new Expression(heuristic).bindVariables("nodeX", "nodeY", "goalX", "goalY");
+        slotEvaluator = new Expression(heuristic).toDoubleEvaluator("nodeX", "nodeY", "goalX", "goalY");
+        compiled = ExpressionCompiler.compile(new Expression(heuristic), "nodeX", "nodeY", "goalX", "goalY");
+    }
+
+    private void nextNode() {
+        nodeX = (nodeX + 7) & 1023;
+        nodeY = (nodeY + 13) & 1023;
+    }
+
+    @Benchmark
+    public BigDecimal interpretedBigDecimal() {
+        nextNode();
+        return expression
+                .with("nodeX", new BigDecimal(nodeX))
+                .with("nodeY", new BigDecimal(nodeY))
+                .with("goalX", new BigDecimal(512))
+                .with("goalY", new BigDecimal(256))
+                .eval();
+    }
+
+    @Benchmark
+    public double interpretedDouble() {
+        nextNode();
+        return evaluator
+                .setVariable("nodeX", nodeX)
+                .setVariable("nodeY", nodeY)
+                .setVariable("goalX", 512)
+                .setVariable("goalY", 256)
+                .eval();
+    }
+
+    @Benchmark
+    public BigDecimal slotBigDecimal() {
+        nextNode();
+        bigDecimalSlots[0] = new BigDecimal(nodeX);
+        bigDecimalSlots[1] = new BigDecimal(nodeY);
+        bigDecimalSlots[2] = new BigDecimal(512);
+        bigDecimalSlots[3] = new BigDecimal(256);
+        return slotExpression.eval(bigDecimalSlots);
+    }
+
+    @Benchmark
+    public double slotDouble() {
+        nextNode();
+        doubleSlots[0] = nodeX;
+        doubleSlots[1] = nodeY;
+        doubleSlots[2] = 512;
+        doubleSlots[3] = 256;
+        return slotEvaluator.eval(doubleSlots);
+    }
+
+    @Benchmark
+    public double compiled() {
+        nextNode();
+        return compiled.eval(nodeX, nodeY, 512, 256);
+    }
+}
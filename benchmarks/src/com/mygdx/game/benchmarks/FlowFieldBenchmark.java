@@ -0,0 +1,81 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.FlowField;
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes a group of agents to one shared goal, once with a search per agent and once with a
+ * single flow field rebuilt after an edit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlowFieldBenchmark {
+
+    @Param({"128"})
+    public int size;
+
+    @Param({"100"})
+    public int agents;
+
+    private GridMap map;
+    private PathFinder pathFinder;
+    private PathResult result;
+    private int[] starts;
+    private int goal;
+    private int editedCell;
+
+    @Setup
+    public void setup() {
+        map = GridMap.copyOf(MapGenerator.generate(size, size, 0.2f));
+        pathFinder = new PathFinder(map);
+        result = new PathResult();
+
+        Random random = new Random(MapGenerator.SEED);
+        starts = new int[agents];
+        for (int i = 0; i < agents; i++) {
+            starts[i] = randomOpenCell(random);
+        }
+        goal = randomOpenCell(random);
+        editedCell = randomOpenCell(random);
+    }
+
+    private int randomOpenCell(Random random) {
+        int cell;
+        do {
+            cell = random.nextInt(map.size());
+        } while (map.isBlocked(cell));
+        return cell;
+    }
+
+    @Benchmark
+    public int searchPerAgent() {
+        int steps = 0;
+        for (int i = 0; i < agents; i++) {
+            pathFinder.findPath(starts[i], goal, result);
+            if (result.getPath().size > 1)
+                steps += result.getPath().get(1);
+        }
+        return steps;
+    }
+
+    @Benchmark
+    public int flowField() {
+        map.setBlocked(editedCell, !map.isBlocked(editedCell));
+        FlowField field = map.getFlowField(goal);
+        int steps = 0;
+        for (int i = 0; i < agents; i++) {
+            steps += field.getNext(starts[i]);
+        }
+        return steps;
+    }
+}
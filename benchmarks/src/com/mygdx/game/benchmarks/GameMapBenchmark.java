@@ -0,0 +1,43 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GameMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures map construction and a neighbour sweep over every cell.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameMapBenchmark {
+
+    @Param({"32", "128", "512"})
+    public int size;
+
+    private GameMap map;
+    private final int[] neighbors = new int[4];
+
+    @Setup
+    public void setup() {
+        map = MapGenerator.generate(size, size, 0.2f);
+    }
+
+    @Benchmark
+    public GameMap create() {
+        return new GameMap(size, size);
+    }
+
+    @Benchmark
+    public int neighbors() {
+        int count = 0;
+        for (int i = 0; i < map.size(); i++) {
+            count += map.getNeighbors(i, neighbors);
+        }
+        return count;
+    }
+}
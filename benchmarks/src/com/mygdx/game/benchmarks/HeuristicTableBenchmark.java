@@ -0,0 +1,71 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.HeuristicTable;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agents spread over a weighted map all search a path to one goal, with the heuristic
+ * evaluated for every search and looked up in a shared {@link HeuristicTable}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeuristicTableBenchmark {
+
+    @Param({"256"})
+    public int size;
+
+    @Param({"64"})
+    public int agents;
+
+    private PathFinder evaluating;
+    private PathFinder tabled;
+    private PathResult result;
+    private int[] starts;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        GridMap map = GridMap.copyOf(MapGenerator.generate(size, size, 0.2f));
+        evaluating = new PathFinder(map);
+        tabled = new PathFinder(map);
+        tabled.setHeuristicTable(new HeuristicTable(map));
+        result = new PathResult();
+
+        Random random = new Random(MapGenerator.SEED);
+        starts = new int[agents];
+        for (int i = 0; i < agents; i++) {
+            do {
+                starts[i] = random.nextInt(map.size());
+            } while (map.isBlocked(starts[i]));
+        }
+        goal = map.size() - 1;
+    }
+
+    @Benchmark
+    public int evaluated() {
+        return searchAll(evaluating);
+    }
+
+    @Benchmark
+    public int tabled() {
+        return searchAll(tabled);
+    }
+
+    private int searchAll(PathFinder pathFinder) {
+        int length = 0;
+        for (int i = 0; i < agents; i++) {
+            length += pathFinder.findPath(starts[i], goal, result).getPath().size;
+        }
+        return length;
+    }
+}
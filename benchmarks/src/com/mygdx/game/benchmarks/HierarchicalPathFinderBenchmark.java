@@ -0,0 +1,90 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.HierarchicalPathFinder;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares flat A* with HPA* on a large map, cycling through random queries, and measures
+ * the repair after a single cell edit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HierarchicalPathFinderBenchmark {
+
+    private static final int QUERIES = 64;
+
+    @Param({"1024"})
+    public int size;
+
+    @Param({"16"})
+    public int clusterSize;
+
+    private GridMap map;
+    private PathFinder pathFinder;
+    private HierarchicalPathFinder hierarchicalPathFinder;
+    private PathResult result;
+    private int[] starts;
+    private int[] goals;
+    private int query;
+    private int editedCell;
+
+    @Setup
+    public void setup() {
+        map = GridMap.copyOf(MapGenerator.generate(size, size, 0.2f));
+        pathFinder = new PathFinder(map);
+        hierarchicalPathFinder = new HierarchicalPathFinder(map, clusterSize);
+        hierarchicalPathFinder.update();
+        result = new PathResult();
+
+        Random random = new Random(MapGenerator.SEED);
+        starts = new int[QUERIES];
+        goals = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = randomOpenCell(random);
+            goals[i] = randomOpenCell(random);
+        }
+        editedCell = randomOpenCell(random);
+    }
+
+    private int randomOpenCell(Random random) {
+        int cell;
+        do {
+            cell = random.nextInt(map.size());
+        } while (map.isBlocked(cell));
+        return cell;
+    }
+
+    @TearDown
+    public void tearDown() {
+        hierarchicalPathFinder.dispose();
+    }
+
+    @Benchmark
+    public PathResult flat() {
+        query = (query + 1) % QUERIES;
+        return pathFinder.findPath(starts[query], goals[query], result);
+    }
+
+    @Benchmark
+    public PathResult hierarchical() {
+        query = (query + 1) % QUERIES;
+        return hierarchicalPathFinder.findPath(starts[query], goals[query], result);
+    }
+
+    @Benchmark
+    public HierarchicalPathFinder editAndUpdate() {
+        map.setBlocked(editedCell, !map.isBlocked(editedCell));
+        hierarchicalPathFinder.update();
+        return hierarchicalPathFinder;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares A* with Jump Point Search on uniform-cost maps. The expansions are reported
+ * through {@link ExpansionCounters} so the reduction can be read next to the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JumpPointSearchBenchmark {
+
+    @Param({"128", "512"})
+    public int size;
+
+    @Param({"0.0", "0.2"})
+    public float density;
+
+    @Param({"true", "false"})
+    public boolean jumpPointSearch;
+
+    private PathFinder pathFinder;
+    private PathResult result;
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        GridMap map = GridMap.copyOf(MapGenerator.generate(size, size, density, 1, MapGenerator.SEED));
+        pathFinder = new PathFinder(map);
+        pathFinder.setJumpPointSearchEnabled(jumpPointSearch);
+        result = new PathResult();
+        start = map.getIndex(0, 0);
+        goal = map.getIndex(size - 1, size - 1);
+    }
+
+    @Benchmark
+    public PathResult findPath(ExpansionCounters counters) {
+        return counters.record(pathFinder.findPath(start, goal, result));
+    }
+}
@@ -0,0 +1,89 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.LandmarkHeuristic;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A* with the default coordinate heuristic against A* with ALT landmarks, cycling through
+ * random queries on a random map and on a winding corridor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LandmarkHeuristicBenchmark {
+
+    private static final int QUERIES = 64;
+
+    @Param({"256"})
+    public int size;
+
+    @Param({"random", "serpentine"})
+    public String map;
+
+    @Param({"8"})
+    public int landmarks;
+
+    private PathFinder expressionFinder;
+    private PathFinder landmarkFinder;
+    private LandmarkHeuristic heuristic;
+    private PathResult result;
+    private int[] starts;
+    private int[] goals;
+    private int query;
+
+    @Setup
+    public void setup() {
+        GridMap grid = GridMap.copyOf("serpentine".equals(map)
+                ? MapGenerator.serpentine(size, size)
+                : MapGenerator.generate(size, size, 0.3f));
+        expressionFinder = new PathFinder(grid);
+        expressionFinder.setJumpPointSearchEnabled(false);
+        heuristic = new LandmarkHeuristic(grid, landmarks);
+        landmarkFinder = new PathFinder(grid);
+        landmarkFinder.setJumpPointSearchEnabled(false);
+        landmarkFinder.setHeuristic(heuristic);
+        result = new PathResult();
+
+        Random random = new Random(MapGenerator.SEED);
+        starts = new int[QUERIES];
+        goals = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = randomOpenCell(grid, random);
+            goals[i] = randomOpenCell(grid, random);
+        }
+    }
+
+    private static int randomOpenCell(GridMap grid, Random random) {
+        int cell;
+        do {
+            cell = random.nextInt(grid.size());
+        } while (grid.isBlocked(cell));
+        return cell;
+    }
+
+    @TearDown
+    public void tearDown() {
+        heuristic.dispose();
+    }
+
+    @Benchmark
+    public PathResult expression() {
+        query = (query + 1) % QUERIES;
+        return expressionFinder.findPath(starts[query], goals[query], result);
+    }
+
+    @Benchmark
+    public PathResult landmarks() {
+        query = (query + 1) % QUERIES;
+        return landmarkFinder.findPath(starts[query], goals[query], result);
+    }
+}
@@ -0,0 +1,59 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GameMap;
+import com.mygdx.game.Node;
+
+import java.util.Random;
+
+/**
+ * Builds reproducible maps for the benchmarks. The corners (0, 0) and
+ * (width - 1, height - 1) are always left open so they can be used as start and goal.
+ */
+public final class MapGenerator {
+
+    public static final long SEED = 0x5EEDL;
+
+    private MapGenerator() {
+    }
+
+    public static GameMap generate(int width, int height, float density) {
+        return generate(width, height, density, 3, SEED);
+    }
+
+    /**
+     * @param maxCost open cells get a random cost from 1 to maxCost, use 1 for a uniform-cost map
+     */
+    public static GameMap generate(int width, int height, float density, int maxCost, long seed) {
+        Random random = new Random(seed);
+        GameMap map = new GameMap(width, height);
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                Node node = map.getNode(i, j);
+                if (random.nextFloat() < density)
+                    node.state = Node.NodeState.BLOCKED;
+                else
+                    node.cost = 1 + random.nextInt(maxCost);
+            }
+        }
+        map.getNode(0, 0).state = Node.NodeState.DEFAULT;
+        map.getNode(width - 1, height - 1).state = Node.NodeState.DEFAULT;
+        return map;
+    }
+
+    /**
+     * Builds a single winding corridor: every fourth column is a wall with one gap, alternating
+     * between the bottom and the top row.
+     */
+    public static GameMap serpentine(int width, int height) {
+        GameMap map = new GameMap(width, height);
+        boolean gapAtTop = true;
+        for (int i = 2; i < width - 1; i += 4) {
+            for (int j = 0; j < height; j++) {
+                map.getNode(i, j).state = Node.NodeState.BLOCKED;
+            }
+            map.getNode(i, gapAtTop ? height - 1 : 0).state = Node.NodeState.DEFAULT;
+            gapAtTop = !gapAtTop;
+        }
+        return map;
+    }
+}
@@ -0,0 +1,109 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.MappedGridMap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a map written in the binary map file format, once by mapping it and once by reading
+ * every cell into a {@link GridMap}, and times the first search across a freshly mapped file
+ * apart from the opening, with and without the reachability check, as well as later searches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappedGridMapBenchmark {
+
+    @Param({"1024"})
+    public int size;
+
+    private File file;
+    private PathFinder mappedPathFinder;
+    private PathFinder copiedPathFinder;
+    private PathResult result;
+
+    /**
+     * A path finder on a map mapped just before every invocation, so each search is the first
+     * one across its map.
+     */
+    @State(Scope.Thread)
+    public static class FreshMap {
+
+        private PathFinder pathFinder;
+
+        @Setup(Level.Invocation)
+        public void open(MappedGridMapBenchmark benchmark) {
+            pathFinder = new PathFinder(MappedGridMap.open(benchmark.file));
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("map", ".psmp");
+        MappedGridMap.write(MapGenerator.generate(size, size, 0.2f), file);
+        MappedGridMap map = MappedGridMap.open(file);
+        mappedPathFinder = new PathFinder(map);
+        copiedPathFinder = new PathFinder(GridMap.copyOf(map));
+        result = new PathResult();
+    }
+
+    // unused mappings are only released by the garbage collector, so opens are timed in batches
+    // of 100, scored per batch, with a collection before each to keep live mappings few
+    @Setup(Level.Iteration)
+    public void releaseMappings() {
+        System.gc();
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 20, batchSize = 100)
+    @Measurement(iterations = 20, batchSize = 100)
+    public MappedGridMap open() {
+        return MappedGridMap.open(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 20, batchSize = 100)
+    @Measurement(iterations = 20, batchSize = 100)
+    public GridMap openCopy() {
+        return GridMap.copyOf(MappedGridMap.open(file));
+    }
+
+    @Benchmark
+    public PathResult firstSearch(FreshMap map) {
+        return map.pathFinder.findPath(0, size * size - 1, result);
+    }
+
+    @Benchmark
+    public PathResult firstSearchCheckingReachability(FreshMap map) {
+        map.pathFinder.setReachabilityCheckEnabled(true);
+        return map.pathFinder.findPath(0, size * size - 1, result);
+    }
+
+    @Benchmark
+    public PathResult searchMapped() {
+        return mappedPathFinder.findPath(0, size * size - 1, result);
+    }
+
+    @Benchmark
+    public PathResult searchCopied() {
+        return copiedPathFinder.findPath(0, size * size - 1, result);
+    }
+}
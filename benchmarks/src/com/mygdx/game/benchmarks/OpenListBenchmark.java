@@ -0,0 +1,51 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.BucketQueue;
+import com.mygdx.game.GridMap;
+import com.mygdx.game.IndexedHeap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same A* search with each open list implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OpenListBenchmark {
+
+    @Param({"128", "512"})
+    public int size;
+
+    @Param({"IndexedHeap", "BucketQueue"})
+    public String openList;
+
+    private PathFinder pathFinder;
+    private PathResult result;
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        GridMap map = GridMap.copyOf(MapGenerator.generate(size, size, 0.2f));
+        pathFinder = new PathFinder(map);
+        if (openList.equals("BucketQueue"))
+            pathFinder.setOpenList(new BucketQueue(map.size()));
+        else
+            pathFinder.setOpenList(new IndexedHeap(map.size()));
+        result = new PathResult();
+        start = map.getIndex(0, 0);
+        goal = map.getIndex(size - 1, size - 1);
+    }
+
+    @Benchmark
+    public PathResult findPath() {
+        return pathFinder.findPath(start, goal, result);
+    }
+}
@@ -0,0 +1,85 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathCache;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agents walking patrol loops ask for the same few routes over and over while the map is
+ * edited now and then, answered by the path finder alone and through a {@link PathCache}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathCacheBenchmark {
+
+    @Param({"128"})
+    public int size;
+
+    @Param({"16"})
+    public int routes;
+
+    @Param({"64"})
+    public int queriesPerEdit;
+
+    private GridMap map;
+    private PathFinder pathFinder;
+    private PathCache pathCache;
+    private PathResult result;
+    private int[] starts;
+    private int[] goals;
+    private Random random;
+    private int query;
+
+    @Setup
+    public void setup() {
+        map = GridMap.copyOf(MapGenerator.generate(size, size, 0.2f));
+        pathFinder = new PathFinder(map);
+        pathCache = new PathCache(new PathFinder(map));
+        result = new PathResult();
+
+        random = new Random(MapGenerator.SEED);
+        starts = new int[routes];
+        goals = new int[routes];
+        for (int i = 0; i < routes; i++) {
+            starts[i] = randomOpenCell();
+            goals[i] = randomOpenCell();
+        }
+    }
+
+    private int randomOpenCell() {
+        int cell;
+        do {
+            cell = random.nextInt(map.size());
+        } while (map.isBlocked(cell));
+        return cell;
+    }
+
+    private int nextRoute() {
+        if (++query % queriesPerEdit == 0) {
+            int cell = random.nextInt(map.size());
+            map.setBlocked(cell, !map.isBlocked(cell));
+        }
+        return query % routes;
+    }
+
+    @Benchmark
+    public PathResult uncached() {
+        int route = nextRoute();
+        return pathFinder.findPath(starts[route], goals[route], result);
+    }
+
+    @Benchmark
+    public PathResult cached() {
+        int route = nextRoute();
+        return pathCache.findPath(starts[route], goals[route], result);
+    }
+}
@@ -0,0 +1,53 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.Grid;
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a full corner to corner A* search through the same stepping API the UI uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathFinderBenchmark {
+
+    @Param({"32", "128", "512"})
+    public int size;
+
+    @Param({"0.0", "0.2", "0.35"})
+    public float density;
+
+    @Param({"GameMap", "GridMap"})
+    public String grid;
+
+    private PathFinder pathFinder;
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        Grid map = MapGenerator.generate(size, size, density);
+        if (grid.equals("GridMap"))
+            map = GridMap.copyOf(map);
+        pathFinder = new PathFinder(map);
+        start = map.getIndex(0, 0);
+        goal = map.getIndex(size - 1, size - 1);
+    }
+
+    @Benchmark
+    public int search() {
+        pathFinder.start(start, goal);
+        while (pathFinder.nextFrontier()) {
+            while (pathFinder.nextNeighbor()) {
+            }
+        }
+        return pathFinder.getPath().size;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import com.mygdx.game.PathScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame cost while bursts of long queries arrive: one {@link PathScheduler#update()} under an
+ * expansion budget, against answering a query in full inside the frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathSchedulerBenchmark {
+
+    private static final int BURST = 32;
+
+    @Param({"256"})
+    public int size;
+
+    @Param({"1000"})
+    public int expansionBudget;
+
+    private GridMap map;
+    private PathFinder pathFinder;
+    private PathScheduler scheduler;
+    private PathResult result;
+    private int[] starts;
+    private int[] goals;
+    private int query;
+
+    @Setup
+    public void setup() {
+        map = GridMap.copyOf(MapGenerator.generate(size, size, 0.2f));
+        pathFinder = new PathFinder(map);
+        scheduler = new PathScheduler(map);
+        scheduler.setExpansionBudget(expansionBudget);
+        result = new PathResult();
+
+        Random random = new Random(MapGenerator.SEED);
+        starts = new int[BURST];
+        goals = new int[BURST];
+        for (int i = 0; i < BURST; i++) {
+            starts[i] = random.nextInt(map.size());
+            goals[i] = random.nextInt(map.size());
+        }
+    }
+
+    @Benchmark
+    public PathResult blockingFrame() {
+        query = (query + 1) % BURST;
+        return pathFinder.findPath(starts[query], goals[query], result);
+    }
+
+    @Benchmark
+    public int scheduledFrame() {
+        if (scheduler.getPendingCount() == 0) {
+            for (int i = 0; i < BURST; i++) {
+                scheduler.submit(starts[i], goals[i]);
+            }
+        }
+        return scheduler.update();
+    }
+}
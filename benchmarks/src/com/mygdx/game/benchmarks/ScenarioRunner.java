@@ -0,0 +1,153 @@
+package com.mygdx.game.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.mygdx.game.Grid;
+import com.mygdx.game.MovingAi;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Runs the queries of Moving AI scenario files through {@link PathFinder} and reports
+ * throughput, latency percentiles and the gap to the reference lengths. Every file is run
+ * once untimed to warm up the JIT, then once timed.
+ * <p>
+ * Usage: {@code ScenarioRunner <file.scen>... [-maps <directory>]}. Map paths in the
+ * scenarios are resolved against the map directory, by default the directory of the
+ * scenario file, and failing that by file name alone.
+ * <p>
+ * The reference lengths assume octile movement while {@link PathFinder} moves in four
+ * directions, so the gap shows what the missing diagonals cost; a path shorter than its
+ * reference means a broken search.
+ */
+public final class ScenarioRunner {
+
+    private static final float TOLERANCE = 1e-3f;
+
+    private final ObjectMap<String, PathFinder> pathFinders = new ObjectMap<String, PathFinder>();
+    private final PathResult result = new PathResult();
+
+    public static void main(String[] args) {
+        Array<File> files = new Array<File>();
+        File maps = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-maps") && i + 1 < args.length)
+                maps = new File(args[++i]);
+            else
+                files.add(new File(args[i]));
+        }
+        if (files.size == 0) {
+            System.err.println("Usage: ScenarioRunner <file.scen>... [-maps <directory>]");
+            System.exit(1);
+        }
+        ScenarioRunner runner = new ScenarioRunner();
+        for (File file : files) {
+            runner.run(file, maps != null ? maps : file.getAbsoluteFile().getParentFile());
+        }
+    }
+
+    private void run(File file, File maps) {
+        Array<MovingAi.Scenario> scenarios = MovingAi.readScenarios(new FileHandle(file));
+        solve(scenarios, maps, null);
+
+        Report report = new Report(scenarios.size);
+        solve(scenarios, maps, report);
+        report.print(file.getName());
+    }
+
+    private void solve(Array<MovingAi.Scenario> scenarios, File maps, Report report) {
+        for (MovingAi.Scenario scenario : scenarios) {
+            PathFinder pathFinder = getPathFinder(scenario, maps);
+            Grid map = pathFinder.getGrid();
+            if (!isValid(scenario, map)) {
+                if (report != null)
+                    report.skipped++;
+                continue;
+            }
+            int start = map.getIndex(scenario.getStartX(), scenario.getStartY());
+            int goal = map.getIndex(scenario.getGoalX(), scenario.getGoalY());
+            long time = System.nanoTime();
+            pathFinder.findPath(start, goal, result);
+            time = System.nanoTime() - time;
+            if (report != null)
+                report.add(time, result, scenario.getOptimalLength());
+        }
+    }
+
+    private static boolean isValid(MovingAi.Scenario scenario, Grid map) {
+        return scenario.getStartX() < map.getWidth() && scenario.getStartY() < map.getHeight()
+                && scenario.getGoalX() < map.getWidth() && scenario.getGoalY() < map.getHeight()
+                && !map.isBlocked(map.getIndex(scenario.getStartX(), scenario.getStartY()))
+                && !map.isBlocked(map.getIndex(scenario.getGoalX(), scenario.getGoalY()));
+    }
+
+    private PathFinder getPathFinder(MovingAi.Scenario scenario, File maps) {
+        PathFinder pathFinder = pathFinders.get(scenario.getMap());
+        if (pathFinder == null) {
+            File file = new File(maps, scenario.getMap());
+            if (!file.exists())
+                file = new File(maps, new File(scenario.getMap()).getName());
+            pathFinder = new PathFinder(MovingAi.readMap(new FileHandle(file)));
+            pathFinders.put(scenario.getMap(), pathFinder);
+        }
+        return pathFinder;
+    }
+
+    private static class Report {
+
+        final long[] nanos;
+        int queries;
+        int skipped;
+        int unsolved;
+        int shorter;
+        int gaps;
+        double gapSum;
+        double maxGap;
+
+        Report(int capacity) {
+            nanos = new long[capacity];
+        }
+
+        void add(long time, PathResult result, float optimalLength) {
+            nanos[queries++] = time;
+            if (!result.isFound()) {
+                unsolved++;
+                return;
+            }
+            if (optimalLength <= 0)
+                return;
+            double gap = result.getCost() / optimalLength - 1;
+            if (gap < -TOLERANCE)
+                shorter++;
+            gapSum += gap;
+            maxGap = Math.max(maxGap, gap);
+            gaps++;
+        }
+
+        void print(String name) {
+            Arrays.sort(nanos, 0, queries);
+            long total = 0;
+            for (int i = 0; i < queries; i++) {
+                total += nanos[i];
+            }
+            System.out.println(name + ": " + queries + " queries, " + skipped + " skipped, "
+                    + unsolved + " unsolved, " + shorter + " shorter than the reference");
+            System.out.printf("  throughput %.1f queries/s%n", queries / (total / 1e9));
+            System.out.printf("  latency us: p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+                    percentile(0.5), percentile(0.9), percentile(0.99), percentile(1));
+            System.out.printf("  gap to reference: mean %.2f%%  max %.2f%%%n",
+                    gaps > 0 ? 100 * gapSum / gaps : 0, 100 * maxGap);
+        }
+
+        private double percentile(double p) {
+            if (queries == 0)
+                return 0;
+            int i = (int) Math.ceil(p * queries) - 1;
+            return nanos[Math.max(0, i)] / 1e3;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mygdx.game.benchmarks;
+
+import com.mygdx.game.GridMap;
+import com.mygdx.game.PathFinder;
+import com.mygdx.game.PathResult;
+import com.mygdx.game.SearchStats;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same corner to corner search with statistics switched off and on, to keep an eye on
+ * what collecting them costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchStatsBenchmark {
+
+    @Param({"256"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean stats;
+
+    private GridMap map;
+    private PathFinder pathFinder;
+    private PathResult result;
+
+    @Setup
+    public void setup() {
+        map = GridMap.copyOf(MapGenerator.generate(size, size, 0.2f));
+        pathFinder = new PathFinder(map);
+        if (stats)
+            pathFinder.setStats(new SearchStats());
+        result = new PathResult();
+    }
+
+    @Benchmark
+    public PathResult findPath() {
+        return pathFinder.findPath(0, map.size() - 1, result);
+    }
+}
@@ -0,0 +1,129 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves many path queries against one grid in parallel. Every worker owns a {@link PathFinder}
+ * that is reused for all of its queries. The grid must not be edited while {@link #solve} runs.
+ */
+public class BatchPathSolver implements Disposable {
+
+    private final Grid grid;
+    private final PathFinder[] pathFinders;
+    private final ExecutorService executor;
+
+    public BatchPathSolver(Grid grid) {
+        this(grid, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchPathSolver(Grid grid, int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        this.grid = grid;
+        // computed here so the workers never race to compute it
+        grid.getUniformCost();
+        pathFinders = new PathFinder[threads];
+        for (int i = 0; i < threads; i++) {
+            pathFinders[i] = new PathFinder(grid);
+        }
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "BatchPathSolver-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @return false if the heuristic is invalid, in which case every worker falls back to the default one
+     */
+    public boolean setHeuristic(String heuristic) {
+        boolean success = true;
+        for (PathFinder pathFinder : pathFinders) {
+            success &= pathFinder.setHeuristic(heuristic);
+        }
+        return success;
+    }
+
+    /**
+     * @see PathFinder#setReachabilityCheckEnabled(boolean)
+     */
+    public void setReachabilityCheckEnabled(boolean reachabilityCheckEnabled) {
+        // created here so the workers never race to create it
+        if (reachabilityCheckEnabled)
+            grid.getConnectedComponents();
+        for (PathFinder pathFinder : pathFinders) {
+            pathFinder.setReachabilityCheckEnabled(reachabilityCheckEnabled);
+        }
+    }
+
+    public PathResult[] solve(int[] starts, int[] goals) {
+        PathResult[] results = new PathResult[starts.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new PathResult();
+        }
+        solve(starts, goals, results);
+        return results;
+    }
+
+    /**
+     * Finds the path from {@code starts[i]} to {@code goals[i]} for every i and stores it in
+     * {@code results[i]}. Starts and goals are cell indices, see {@link Grid#getIndex(int, int)}.
+     */
+    public void solve(final int[] starts, final int[] goals, final PathResult[] results) {
+        if (starts.length != goals.length || starts.length != results.length)
+            throw new IllegalArgumentException("starts, goals and results must have the same length");
+
+        // refreshed here after edits between batches, the workers only read it
+        grid.getUniformCost();
+        final AtomicInteger next = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(pathFinders.length);
+        for (final PathFinder pathFinder : pathFinders) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    int i;
+                    while ((i = next.getAndIncrement()) < starts.length) {
+                        pathFinder.findPath(starts[i], goals[i], results[i]);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while solving paths", e);
+        } catch (ExecutionException e) {
+            throw new GdxRuntimeException("Path query failed", e.getCause());
+        }
+    }
+
+    public int getThreadCount() {
+        return pathFinders.length;
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,212 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A* grown from both ends at once. The backward side walks edges in reverse, so entering a
+ * cell still costs that cell's cost. Every time a side reaches a cell the other side has seen,
+ * the cost of the joined path becomes a candidate for the best path. The search stops as
+ * soon as the lowest f value of either open list is no better than the best candidate, since
+ * the heuristic never overestimates and no cheaper path can be left.
+ */
+public class BidirectionalSearch {
+
+    private final Grid grid;
+    private HeuristicFunction heuristic;
+
+    private final Side forward;
+    private final Side backward;
+    private final int[] neighbors = new int[4];
+
+    private int start;
+    private int goal;
+    private float bestCost;
+    private int meeting;
+
+    public BidirectionalSearch(Grid grid, HeuristicFunction heuristic) {
+        this.grid = grid;
+        this.heuristic = heuristic;
+        forward = new Side(grid.size(), false);
+        backward = new Side(grid.size(), true);
+    }
+
+    public void setHeuristic(HeuristicFunction heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public PathResult findPath(int start, int goal) {
+        return findPath(start, goal, new PathResult());
+    }
+
+    public PathResult findPath(int start, int goal, PathResult result) {
+        this.start = start;
+        this.goal = goal;
+        bestCost = Float.POSITIVE_INFINITY;
+        meeting = -1;
+        result.clear();
+
+        forward.start(start, goal);
+        backward.start(goal, start);
+
+        if (start == goal) {
+            bestCost = 0;
+            meeting = start;
+        } else if (grid.isBlocked(goal)) {
+            backward.frontiers.clear();
+        }
+
+        while (forward.frontiers.size() > 0 && backward.frontiers.size() > 0) {
+            if (forward.frontiers.peekPriority() >= bestCost || backward.frontiers.peekPriority() >= bestCost)
+                break;
+            if (forward.frontiers.size() <= backward.frontiers.size())
+                expand(forward, backward);
+            else
+                expand(backward, forward);
+        }
+
+        if (meeting != -1) {
+            buildPath(result.getPath());
+            result.set(true, getCost(result.getPath()));
+        }
+        result.setExpansions(getExpansions());
+        return result;
+    }
+
+    public int getExpansions() {
+        return forward.expansions + backward.expansions;
+    }
+
+    public int getForwardExpansions() {
+        return forward.expansions;
+    }
+
+    public int getBackwardExpansions() {
+        return backward.expansions;
+    }
+
+    private void expand(Side side, Side other) {
+        int index = side.frontiers.pop();
+        SearchState state = side.state;
+        state.category[index] = SearchState.VISITED;
+        side.expansions++;
+
+        int count;
+        if (!side.reverse)
+            count = grid.getNeighbors(index, neighbors);
+        else if (grid.isBlocked(index))
+            count = 0;
+        else
+            count = getPredecessors(index);
+        for (int i = 0; i < count; i++) {
+            int neighbor = neighbors[i];
+            float newCost = state.costSoFar[index] + grid.getCost(side.reverse ? index : neighbor);
+
+            state.touch(neighbor);
+            float nodeHeuristic;
+            if (state.category[neighbor] == SearchState.UNVISITED) {
+                nodeHeuristic = side.getNodeHeuristic(neighbor);
+            } else {
+                if (state.costSoFar[neighbor] <= newCost) continue;
+                nodeHeuristic = state.totalCost[neighbor] - state.costSoFar[neighbor];
+            }
+            state.costSoFar[neighbor] = newCost;
+            state.totalCost[neighbor] = newCost + nodeHeuristic;
+            state.fromIndex[neighbor] = index;
+            state.category[neighbor] = SearchState.FRONTIER;
+            side.frontiers.add(neighbor, state.totalCost[neighbor]);
+
+            SearchState otherState = other.state;
+            if (otherState.isReached(neighbor) && otherState.category[neighbor] != SearchState.UNVISITED
+                    && newCost + otherState.costSoFar[neighbor] < bestCost) {
+                bestCost = newCost + otherState.costSoFar[neighbor];
+                meeting = neighbor;
+            }
+        }
+    }
+
+    /**
+     * Collects the cells that can step into {@code index}: its open neighbours, plus the start
+     * cell even when it is blocked, because a search may always leave its start.
+     */
+    private int getPredecessors(int index) {
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        int height = grid.getHeight();
+        int count = 0;
+        if (x > 0 && isEnterable(index - height))
+            neighbors[count++] = index - height;
+        if (x < grid.getWidth() - 1 && isEnterable(index + height))
+            neighbors[count++] = index + height;
+        if (y > 0 && isEnterable(index - 1))
+            neighbors[count++] = index - 1;
+        if (y < height - 1 && isEnterable(index + 1))
+            neighbors[count++] = index + 1;
+        return count;
+    }
+
+    private boolean isEnterable(int index) {
+        return index == start || !grid.isBlocked(index);
+    }
+
+    private void buildPath(IntArray path) {
+        int index = meeting;
+        while (index != -1) {
+            path.add(index);
+            index = forward.state.fromIndex[index];
+        }
+        path.reverse();
+        index = meeting == goal ? -1 : backward.state.fromIndex[meeting];
+        while (index != -1) {
+            path.add(index);
+            index = backward.state.fromIndex[index];
+        }
+    }
+
+    // a cell reopened after the meeting was recorded can make the joined path cheaper than
+    // bestCost, so the cost is taken from the path itself
+    private float getCost(IntArray path) {
+        float cost = 0;
+        for (int i = 1; i < path.size; i++) {
+            cost += grid.getCost(path.get(i));
+        }
+        return cost;
+    }
+
+    private class Side {
+
+        final SearchState state;
+        final OpenList frontiers;
+        final boolean reverse;
+        int targetX;
+        int targetY;
+        int expansions;
+
+        Side(int size, boolean reverse) {
+            this.reverse = reverse;
+            state = new SearchState(size);
+            frontiers = new IndexedHeap(size);
+        }
+
+        void start(int origin, int target) {
+            targetX = grid.getX(target);
+            targetY = grid.getY(target);
+            expansions = 0;
+            frontiers.clear();
+            state.begin();
+
+            state.touch(origin);
+            state.fromIndex[origin] = -1;
+            state.costSoFar[origin] = 0;
+            state.totalCost[origin] = getNodeHeuristic(origin);
+            state.category[origin] = SearchState.FRONTIER;
+            frontiers.add(origin, state.totalCost[origin]);
+        }
+
+        // the backward side estimates the path from the start to the cell, as it is walked
+        float getNodeHeuristic(int index) {
+            if (reverse)
+                return heuristic.evaluate(targetX, targetY, grid.getX(index), grid.getY(index));
+            return heuristic.evaluate(grid.getX(index), grid.getY(index), targetX, targetY);
+        }
+    }
+}
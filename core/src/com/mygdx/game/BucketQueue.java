@@ -0,0 +1,104 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Open list with one bucket per integer priority, for grids with integer costs and heuristics.
+ * Priorities are truncated to integers, so cells whose priorities share an integer part come
+ * out in last-in first-out order. Negative priorities are treated as 0.
+ * <p>
+ * A priority change appends the cell to its new bucket and leaves a stale entry behind that is
+ * skipped when reached, so add and pop are O(1) amortised apart from scanning empty buckets.
+ */
+public class BucketQueue implements OpenList {
+
+    private final Array<IntArray> buckets = new Array<IntArray>();
+    private final float[] priorities;
+    private final int[] bucketOf;
+    private int size;
+    private int minBucket;
+
+    /**
+     * @param capacity number of cells, every index added must be below it
+     */
+    public BucketQueue(int capacity) {
+        priorities = new float[capacity];
+        bucketOf = new int[capacity];
+        Arrays.fill(bucketOf, -1);
+    }
+
+    @Override
+    public void add(int index, float priority) {
+        int bucket = priority > 0 ? (int) priority : 0;
+        priorities[index] = priority;
+        int oldBucket = bucketOf[index];
+        if (oldBucket == bucket)
+            return;
+        if (oldBucket == -1)
+            size++;
+        bucketOf[index] = bucket;
+        while (buckets.size <= bucket) {
+            buckets.add(new IntArray());
+        }
+        buckets.get(bucket).add(index);
+        if (bucket < minBucket)
+            minBucket = bucket;
+    }
+
+    @Override
+    public int pop() {
+        int index = buckets.get(findMinBucket()).pop();
+        bucketOf[index] = -1;
+        size--;
+        return index;
+    }
+
+    @Override
+    public float peekPriority() {
+        IntArray bucket = buckets.get(findMinBucket());
+        return priorities[bucket.peek()];
+    }
+
+    /**
+     * Moves {@link #minBucket} to the first bucket whose top entry is live, dropping stale entries.
+     */
+    private int findMinBucket() {
+        if (size == 0)
+            throw new IllegalStateException("Open list is empty");
+        while (true) {
+            IntArray bucket = buckets.get(minBucket);
+            while (bucket.size > 0) {
+                if (bucketOf[bucket.peek()] == minBucket)
+                    return minBucket;
+                bucket.pop();
+            }
+            minBucket++;
+        }
+    }
+
+    @Override
+    public boolean contains(int index) {
+        return bucketOf[index] != -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < buckets.size; i++) {
+            IntArray bucket = buckets.get(i);
+            for (int j = 0; j < bucket.size; j++) {
+                bucketOf[bucket.get(j)] = -1;
+            }
+            bucket.clear();
+        }
+        size = 0;
+        minBucket = 0;
+    }
+}
@@ -0,0 +1,249 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Labels every open cell of a grid with the connected component it belongs to, so a query
+ * between two components can be rejected without searching. Get it from
+ * {@link Grid#getConnectedComponents()}; it follows edits of its grid as they happen.
+ * <p>
+ * Opening a cell merges the components around it by relabelling the smaller ones. Blocking a
+ * cell may split its component: breadth-first searches start from each of its open neighbours
+ * in lockstep and stop as soon as they have all met, so an edit that splits nothing usually
+ * costs a handful of steps, and a real split costs about the size of the smaller parts.
+ */
+public class ConnectedComponents implements GridListener {
+
+    private static final int NONE = -1;
+
+    private final Grid grid;
+    private final int[] labels;
+    private final IntArray sizes = new IntArray();
+    private final IntArray freeLabels = new IntArray();
+
+    private final int[] marks;
+    private int markBase;
+    private final IntArray[] queues = new IntArray[4];
+    private final int[] heads = new int[4];
+    private final int[] groups = new int[4];
+    private final boolean[] closed = new boolean[4];
+    private final int[] sources = new int[4];
+    private final int[] neighbors = new int[4];
+
+    ConnectedComponents(Grid grid) {
+        this.grid = grid;
+        labels = new int[grid.size()];
+        marks = new int[grid.size()];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new IntArray();
+        }
+        build();
+        grid.addListener(this);
+    }
+
+    private void build() {
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = NONE;
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] == NONE && !grid.isBlocked(i))
+                flood(i, NONE, newLabel());
+        }
+    }
+
+    /**
+     * @return the component of an open cell, or -1 for a blocked cell
+     */
+    public int getComponent(int index) {
+        return labels[index];
+    }
+
+    /**
+     * @return the number of open cells in the component of an open cell
+     */
+    public int getComponentSize(int index) {
+        return labels[index] == NONE ? 0 : sizes.get(labels[index]);
+    }
+
+    /**
+     * Answers in constant time whether a path from {@code start} to {@code goal} exists. A
+     * blocked start may still be left, a blocked goal can only be reached by standing on it.
+     */
+    public boolean isReachable(int start, int goal) {
+        if (start == goal)
+            return true;
+        int label = labels[goal];
+        if (label == NONE)
+            return false;
+        if (labels[start] != NONE)
+            return labels[start] == label;
+        int count = grid.getNeighbors(start, neighbors);
+        for (int i = 0; i < count; i++) {
+            if (labels[neighbors[i]] == label)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void cellChanged(Grid grid, int index) {
+        boolean blocked = grid.isBlocked(index);
+        if (blocked && labels[index] != NONE)
+            cellBlocked(index);
+        else if (!blocked && labels[index] == NONE)
+            cellOpened(index);
+    }
+
+    private void cellOpened(int index) {
+        int count = grid.getNeighbors(index, sources);
+        int target = NONE;
+        for (int i = 0; i < count; i++) {
+            int label = labels[sources[i]];
+            if (target == NONE || sizes.get(label) > sizes.get(target))
+                target = label;
+        }
+        if (target == NONE) {
+            target = newLabel();
+        }
+        labels[index] = target;
+        sizes.incr(target, 1);
+
+        for (int i = 0; i < count; i++) {
+            int label = labels[sources[i]];
+            if (label != target) {
+                int size = sizes.get(label);
+                flood(sources[i], label, target);
+                sizes.incr(target, size);
+                freeLabel(label);
+            }
+        }
+    }
+
+    private void cellBlocked(int index) {
+        int label = labels[index];
+        labels[index] = NONE;
+        sizes.incr(label, -1);
+        int count = grid.getNeighbors(index, sources);
+        if (count == 0)
+            freeLabel(label);
+        if (count < 2)
+            return;
+
+        if (markBase > Integer.MAX_VALUE - 8) {
+            for (int i = 0; i < marks.length; i++) {
+                marks[i] = 0;
+            }
+            markBase = 0;
+        }
+        markBase += 4;
+        for (int i = 0; i < count; i++) {
+            queues[i].clear();
+            queues[i].add(sources[i]);
+            heads[i] = 0;
+            groups[i] = i;
+            closed[i] = false;
+            marks[sources[i]] = markBase + i;
+        }
+
+        int open = count;
+        while (open > 1) {
+            for (int i = 0; i < count && open > 1; i++) {
+                if (closed[findGroup(i)] || heads[i] == queues[i].size)
+                    continue;
+                int cell = queues[i].get(heads[i]++);
+                int neighborCount = grid.getNeighbors(cell, neighbors);
+                for (int j = 0; j < neighborCount; j++) {
+                    int neighbor = neighbors[j];
+                    int mark = marks[neighbor] - markBase;
+                    if (mark >= 0 && mark < 4) {
+                        int group = findGroup(i);
+                        int other = findGroup(mark);
+                        if (group != other) {
+                            groups[other] = group;
+                            open--;
+                        }
+                    } else {
+                        marks[neighbor] = markBase + i;
+                        queues[i].add(neighbor);
+                    }
+                }
+            }
+            for (int i = 0; i < count && open > 1; i++) {
+                if (groups[i] == i && !closed[i] && isExhausted(i, count)) {
+                    closed[i] = true;
+                    open--;
+                    split(i, count, label);
+                }
+            }
+        }
+    }
+
+    private int findGroup(int source) {
+        while (groups[source] != source) {
+            source = groups[source];
+        }
+        return source;
+    }
+
+    private boolean isExhausted(int group, int count) {
+        for (int i = 0; i < count; i++) {
+            if (findGroup(i) == group && heads[i] < queues[i].size)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves the cells found by the searches of a closed group into a new component.
+     */
+    private void split(int group, int count, int oldLabel) {
+        int label = newLabel();
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (findGroup(i) != group)
+                continue;
+            IntArray queue = queues[i];
+            for (int j = 0; j < queue.size; j++) {
+                labels[queue.get(j)] = label;
+            }
+            size += queue.size;
+        }
+        sizes.set(label, size);
+        sizes.incr(oldLabel, -size);
+    }
+
+    /**
+     * Gives {@code label} to the open cells reachable from {@code origin} that carry {@code from}.
+     */
+    private void flood(int origin, int from, int label) {
+        IntArray queue = queues[0];
+        queue.clear();
+        queue.add(origin);
+        labels[origin] = label;
+        int size = 0;
+        while (size < queue.size) {
+            int count = grid.getNeighbors(queue.get(size++), neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (labels[neighbor] == from) {
+                    labels[neighbor] = label;
+                    queue.add(neighbor);
+                }
+            }
+        }
+        if (from == NONE)
+            sizes.set(label, size);
+    }
+
+    private int newLabel() {
+        if (freeLabels.size > 0)
+            return freeLabels.pop();
+        sizes.add(0);
+        return sizes.size - 1;
+    }
+
+    private void freeLabel(int label) {
+        sizes.set(label, 0);
+        freeLabels.add(label);
+    }
+}
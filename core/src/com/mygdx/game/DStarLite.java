@@ -0,0 +1,358 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * D* Lite: an incremental planner for an agent that walks towards a fixed goal while cells
+ * change. The search runs backward from the goal and keeps its state between queries, so a
+ * query after the agent moved or after cells were edited only repairs the part of the search
+ * tree the change touched. It listens to its grid; call {@link #dispose()} to stop listening.
+ * <p>
+ * Each cell keeps g, its current distance to the goal, and rhs, the distance computed from
+ * its successors. Cells where they differ are queued by the key
+ * [min(g, rhs) + h(start, cell) + km, min(g, rhs)]; km grows by the heuristic distance the
+ * start moved, so keys already in the queue stay valid without being recomputed.
+ */
+public class DStarLite implements GridListener, Disposable {
+
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+
+    private final Grid grid;
+    private HeuristicFunction heuristic;
+
+    private final float[] g;
+    private final float[] rhs;
+    private final int[] stamps;
+    private int searchId;
+
+    // binary heap ordered by (primaryKeys, secondaryKeys), positions of -1 mean not queued
+    private final int[] heap;
+    private final int[] positions;
+    private final float[] primaryKeys;
+    private final float[] secondaryKeys;
+    private int heapSize;
+
+    private final IntArray changed = new IntArray();
+    private final boolean[] changedFlags;
+    private final int[] neighbors = new int[4];
+    private final int[] predecessors = new int[4];
+
+    private int start = -1;
+    private int goal = -1;
+    private int lastStart;
+    private float km;
+    private int heuristicVersion;
+    private int expansions;
+
+    public DStarLite(Grid grid) {
+        this(grid, new HeuristicFunction(PathFinder.DEFAULT_HEURISTIC));
+    }
+
+    public DStarLite(Grid grid, HeuristicFunction heuristic) {
+        this.grid = grid;
+        this.heuristic = heuristic;
+        int size = grid.size();
+        g = new float[size];
+        rhs = new float[size];
+        stamps = new int[size];
+        heap = new int[size];
+        positions = new int[size];
+        primaryKeys = new float[size];
+        secondaryKeys = new float[size];
+        changedFlags = new boolean[size];
+        Arrays.fill(positions, -1);
+        grid.addListener(this);
+    }
+
+    /**
+     * Replaces the heuristic. The search state is built with the old one, so the next query
+     * plans from scratch.
+     */
+    public void setHeuristic(HeuristicFunction heuristic) {
+        this.heuristic = heuristic;
+        goal = -1;
+    }
+
+    /**
+     * @return the cells expanded by the last query; small when only a little had to be repaired
+     */
+    public int getExpansions() {
+        return expansions;
+    }
+
+    @Override
+    public void cellChanged(Grid grid, int index) {
+        if (goal == -1 || changedFlags[index])
+            return;
+        changedFlags[index] = true;
+        changed.add(index);
+    }
+
+    @Override
+    public void dispose() {
+        grid.removeListener(this);
+    }
+
+    public PathResult findPath(int start, int goal) {
+        return findPath(start, goal, new PathResult());
+    }
+
+    /**
+     * Plans from {@code start} to {@code goal}. While the goal stays the same, the search state
+     * of the previous query is reused: only edits made since then and the distance the start
+     * moved are processed. A new goal starts a fresh search, and so does a heuristic whose
+     * estimates dropped since the last query, such as a {@link LandmarkHeuristic} after a cell
+     * was opened, as the queued keys would overestimate.
+     */
+    public PathResult findPath(int start, int goal, PathResult result) {
+        result.clear();
+        expansions = 0;
+        int version = heuristic.getVersion();
+        if (goal != this.goal || version != heuristicVersion) {
+            heuristicVersion = version;
+            reset(start, goal);
+        } else if (start != this.start) {
+            this.start = start;
+            km += getHeuristic(lastStart, start);
+            lastStart = start;
+        }
+
+        for (int i = 0; i < changed.size; i++) {
+            int index = changed.get(i);
+            changedFlags[index] = false;
+            updateVertex(index);
+            updatePredecessors(index);
+        }
+        changed.clear();
+        // a blocked start is never updated as a predecessor while it is not the start
+        if (grid.isBlocked(start))
+            updateVertex(start);
+
+        computeShortestPath();
+
+        if (getG(start) != INFINITY) {
+            result.set(true, getG(start));
+            buildPath(result.getPath());
+        }
+        result.setExpansions(expansions);
+        return result;
+    }
+
+    private void reset(int start, int goal) {
+        this.start = start;
+        this.goal = goal;
+        lastStart = start;
+        km = 0;
+        if (++searchId < 0) searchId = 1;
+        while (heapSize > 0) {
+            positions[heap[--heapSize]] = -1;
+        }
+        for (int i = 0; i < changed.size; i++) {
+            changedFlags[changed.get(i)] = false;
+        }
+        changed.clear();
+
+        touch(goal);
+        rhs[goal] = 0;
+        insert(goal);
+    }
+
+    private void computeShortestPath() {
+        float startHeuristic = getHeuristic(start, start);
+        while (heapSize > 0) {
+            int top = heap[0];
+            float startSecondary = Math.min(getG(start), getRhs(start));
+            float startPrimary = startSecondary + startHeuristic + km;
+            if (!less(primaryKeys[top], secondaryKeys[top], startPrimary, startSecondary)
+                    && getRhs(start) == getG(start))
+                break;
+
+            float oldPrimary = primaryKeys[top];
+            float oldSecondary = secondaryKeys[top];
+            float minCost = Math.min(g[top], rhs[top]);
+            float newPrimary = minCost + getHeuristic(start, top) + km;
+            if (less(oldPrimary, oldSecondary, newPrimary, minCost)) {
+                primaryKeys[top] = newPrimary;
+                secondaryKeys[top] = minCost;
+                down(0);
+                continue;
+            }
+
+            remove(top);
+            expansions++;
+            if (g[top] > rhs[top]) {
+                g[top] = rhs[top];
+                updatePredecessors(top);
+            } else {
+                g[top] = INFINITY;
+                updateVertex(top);
+                updatePredecessors(top);
+            }
+        }
+    }
+
+    /**
+     * Updates the cells that can step into {@code index}: its open neighbours and the start,
+     * which may be left even when it is blocked. Also called for cells that just became
+     * blocked, so their neighbours drop the step into them.
+     */
+    private void updatePredecessors(int index) {
+        int count = getNeighborCells(index);
+        for (int i = 0; i < count; i++) {
+            int neighbor = predecessors[i];
+            if (neighbor == start || !grid.isBlocked(neighbor))
+                updateVertex(neighbor);
+        }
+    }
+
+    private void updateVertex(int index) {
+        touch(index);
+        if (index != goal) {
+            float best = INFINITY;
+            int count = grid.getNeighbors(index, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                float cost = grid.getCost(neighbor) + getG(neighbor);
+                if (cost < best)
+                    best = cost;
+            }
+            rhs[index] = best;
+        }
+        if (positions[index] != -1)
+            remove(index);
+        if (g[index] != rhs[index])
+            insert(index);
+    }
+
+    /**
+     * Follows the cheapest successor from the start until the goal is reached.
+     */
+    private void buildPath(IntArray path) {
+        int index = start;
+        path.add(index);
+        int steps = grid.size();
+        while (index != goal && steps-- > 0) {
+            int next = -1;
+            float best = INFINITY;
+            int count = grid.getNeighbors(index, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                float cost = grid.getCost(neighbor) + getG(neighbor);
+                if (cost < best) {
+                    best = cost;
+                    next = neighbor;
+                }
+            }
+            if (next == -1)
+                break;
+            path.add(next);
+            index = next;
+        }
+    }
+
+    /**
+     * Writes every in-bounds neighbour of a cell, blocked or not, into {@link #predecessors}.
+     */
+    private int getNeighborCells(int index) {
+        int height = grid.getHeight();
+        int x = grid.getX(index);
+        int y = index - x * height;
+        int count = 0;
+        if (x > 0)
+            predecessors[count++] = index - height;
+        if (x < grid.getWidth() - 1)
+            predecessors[count++] = index + height;
+        if (y > 0)
+            predecessors[count++] = index - 1;
+        if (y < height - 1)
+            predecessors[count++] = index + 1;
+        return count;
+    }
+
+    // keys use h(start, cell), the estimate in the direction the agent walks, which matters
+    // for heuristics that are not symmetric
+    private float getHeuristic(int from, int to) {
+        return heuristic.evaluate(grid.getX(from), grid.getY(from), grid.getX(to), grid.getY(to));
+    }
+
+    private void touch(int index) {
+        if (stamps[index] != searchId) {
+            stamps[index] = searchId;
+            g[index] = INFINITY;
+            rhs[index] = INFINITY;
+            positions[index] = -1;
+        }
+    }
+
+    private float getG(int index) {
+        return stamps[index] == searchId ? g[index] : INFINITY;
+    }
+
+    private float getRhs(int index) {
+        return stamps[index] == searchId ? rhs[index] : INFINITY;
+    }
+
+    private static boolean less(float primary, float secondary, float otherPrimary, float otherSecondary) {
+        return primary < otherPrimary || primary == otherPrimary && secondary < otherSecondary;
+    }
+
+    private void insert(int index) {
+        float minCost = Math.min(g[index], rhs[index]);
+        primaryKeys[index] = minCost + getHeuristic(start, index) + km;
+        secondaryKeys[index] = minCost;
+        int position = heapSize++;
+        heap[position] = index;
+        positions[index] = position;
+        up(position);
+    }
+
+    private void remove(int index) {
+        int position = positions[index];
+        positions[index] = -1;
+        if (--heapSize == position)
+            return;
+        int last = heap[heapSize];
+        heap[position] = last;
+        positions[last] = position;
+        up(position);
+        down(positions[last]);
+    }
+
+    private void up(int position) {
+        int index = heap[position];
+        while (position > 0) {
+            int parentPosition = (position - 1) >> 1;
+            int parent = heap[parentPosition];
+            if (!less(primaryKeys[index], secondaryKeys[index], primaryKeys[parent], secondaryKeys[parent]))
+                break;
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = index;
+        positions[index] = position;
+    }
+
+    private void down(int position) {
+        int index = heap[position];
+        while (true) {
+            int child = (position << 1) + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && less(primaryKeys[heap[child + 1]], secondaryKeys[heap[child + 1]],
+                    primaryKeys[heap[child]], secondaryKeys[heap[child]]))
+                child++;
+            int childIndex = heap[child];
+            if (!less(primaryKeys[childIndex], secondaryKeys[childIndex], primaryKeys[index], secondaryKeys[index]))
+                break;
+            heap[position] = childIndex;
+            positions[childIndex] = position;
+            position = child;
+        }
+        heap[position] = index;
+        positions[index] = position;
+    }
+}
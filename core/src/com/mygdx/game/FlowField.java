@@ -0,0 +1,129 @@
+package com.mygdx.game;
+
+/**
+ * Cost to one goal from every cell of a grid, plus the next step to take from each cell.
+ * It is built with a single Dijkstra search backward from the goal, after which any number of
+ * agents heading for that goal find their next step with an array lookup.
+ * Get one from {@link Grid#getFlowField(int)}, which caches fields and rebuilds them after edits.
+ * A field evicted from that cache must not be kept; reading it throws an
+ * {@link IllegalStateException}.
+ */
+public class FlowField {
+
+    private final Grid grid;
+    private final float[] costs;
+    private final int[] next;
+    private final int[] neighbors = new int[4];
+    private int goal = -1;
+    private int version;
+    private boolean evicted;
+
+    FlowField(Grid grid) {
+        this.grid = grid;
+        costs = new float[grid.size()];
+        next = new int[grid.size()];
+    }
+
+    void build(int goal, OpenList frontiers) {
+        this.goal = goal;
+        version = grid.getVersion();
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = Float.POSITIVE_INFINITY;
+            next[i] = -1;
+        }
+        costs[goal] = 0;
+        frontiers.clear();
+        frontiers.add(goal, 0);
+
+        while (frontiers.size() > 0) {
+            int index = frontiers.pop();
+            // stepping into a blocked cell is not allowed, but a blocked cell may be left
+            if (grid.isBlocked(index))
+                continue;
+            float cost = costs[index] + grid.getCost(index);
+            int count = getNeighborCells(index);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (cost < costs[neighbor]) {
+                    costs[neighbor] = cost;
+                    next[neighbor] = index;
+                    frontiers.add(neighbor, cost);
+                }
+            }
+        }
+    }
+
+    private int getNeighborCells(int index) {
+        int height = grid.getHeight();
+        int x = grid.getX(index);
+        int y = index - x * height;
+        int count = 0;
+        if (x > 0)
+            neighbors[count++] = index - height;
+        if (x < grid.getWidth() - 1)
+            neighbors[count++] = index + height;
+        if (y > 0)
+            neighbors[count++] = index - 1;
+        if (y < height - 1)
+            neighbors[count++] = index + 1;
+        return count;
+    }
+
+    void evict() {
+        evicted = true;
+    }
+
+    private void checkEvicted() {
+        if (evicted)
+            throw new IllegalStateException("Flow field towards " + goal + " was evicted, get a new one from the grid");
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    /**
+     * @return false once a cell of the grid changed after the field was built, or once the
+     * field was evicted from the cache of the grid
+     */
+    public boolean isValid() {
+        return !evicted && version == grid.getVersion();
+    }
+
+    /**
+     * @return the cost of the cheapest path from {@code index} to the goal, or
+     * {@link Float#POSITIVE_INFINITY} if the goal cannot be reached
+     */
+    public float getCost(int index) {
+        checkEvicted();
+        return costs[index];
+    }
+
+    /**
+     * @return the cell to step into from {@code index}, or -1 at the goal and where the
+     * goal cannot be reached
+     */
+    public int getNext(int index) {
+        checkEvicted();
+        return next[index];
+    }
+
+    public boolean isReachable(int index) {
+        checkEvicted();
+        return costs[index] != Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Follows the field from {@code start} and stores the resulting path in {@code result}.
+     */
+    public PathResult getPath(int start, PathResult result) {
+        result.clear();
+        if (!isReachable(start))
+            return result;
+        result.set(true, costs[start]);
+        for (int index = start; index != -1; index = next[index]) {
+            result.getPath().add(index);
+        }
+        return result;
+    }
+}
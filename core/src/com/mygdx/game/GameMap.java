@@ -1,15 +1,11 @@
 package com.mygdx.game;
 
-public class GameMap {
+public class GameMap extends Grid {
 
     Node nodes[][];
 
-    private final int width;
-    private final int height;
-
     public GameMap(int width, int height) {
-        this.width = width;
-        this.height = height;
+        super(width, height);
         nodes = new Node[width][height];
 
         for (int i = 0; i < width; i++) {
@@ -17,26 +13,41 @@ public class GameMap {
                 nodes[i][j] = new Node(this, i, j);
             }
         }
-        updateNearbyNode();
     }
 
     public Node getNode(int x, int y) {
         return nodes[x][y];
     }
 
-    public int getWidth() {
-        return width;
+    public Node getNode(int index) {
+        return nodes[index / height][index % height];
     }
 
-    public int getHeight() {
-        return height;
+    public void setBlocked(Node node, boolean blocked) {
+        if (node.isBlocked() == blocked)
+            return;
+        node.state = blocked ? Node.NodeState.BLOCKED : Node.NodeState.DEFAULT;
+        notifyCellChanged(node.getIndex());
     }
 
-    public void updateNearbyNode() {
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                nodes[i][j].updateNearbyNode(this);
-            }
-        }
+    public void setCost(Node node, float cost) {
+        if (node.cost == cost)
+            return;
+        node.cost = cost;
+        notifyCellChanged(node.getIndex());
+    }
+
+    public FlowField getFlowField(Node goal) {
+        return getFlowField(goal.getIndex());
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return getNode(index).isBlocked();
+    }
+
+    @Override
+    public float getCost(int index) {
+        return getNode(index).cost;
     }
 }
@@ -0,0 +1,172 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A 4-connected grid addressed by cell index {@code x * height + y}. This is all a
+ * {@link PathFinder} needs to know about a map.
+ */
+public abstract class Grid {
+
+    protected final int width;
+    protected final int height;
+
+    private final Array<GridListener> listeners = new Array<GridListener>(false, 4);
+    private int version;
+    private float uniformCost;
+    private int uniformCostVersion = -1;
+
+    private static final int FLOW_FIELD_CACHE_SIZE = 8;
+    // most recently used first
+    private Array<FlowField> flowFields;
+    private OpenList flowFieldFrontiers;
+    private ConnectedComponents connectedComponents;
+
+    protected Grid(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int size() {
+        return width * height;
+    }
+
+    public int getIndex(int x, int y) {
+        return x * height + y;
+    }
+
+    public int getX(int index) {
+        return index / height;
+    }
+
+    public int getY(int index) {
+        return index % height;
+    }
+
+    public void addListener(GridListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GridListener listener) {
+        listeners.removeValue(listener, true);
+    }
+
+    /**
+     * @return a counter that grows with every cell change, for cheap staleness checks
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Announces that the blocked state or cost of a cell changed. The setters of the
+     * implementations call this; code that edits cell data directly has to call it itself.
+     */
+    public void notifyCellChanged(int index) {
+        version++;
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).cellChanged(this, index);
+        }
+    }
+
+    /**
+     * Returns the flow field towards {@code goal}. Fields for the last few goals are cached and
+     * rebuilt on request once a cell changed, so agents sharing a goal share one search.
+     * When the cache is full the least recently requested field is evicted; it stays invalid
+     * and throws if it is read again.
+     */
+    public FlowField getFlowField(int goal) {
+        if (flowFields == null) {
+            flowFields = new Array<FlowField>(true, FLOW_FIELD_CACHE_SIZE);
+            flowFieldFrontiers = new IndexedHeap(size());
+        }
+        FlowField field = null;
+        for (int i = 0; i < flowFields.size; i++) {
+            if (flowFields.get(i).getGoal() == goal) {
+                field = flowFields.removeIndex(i);
+                break;
+            }
+        }
+        if (field == null) {
+            if (flowFields.size >= FLOW_FIELD_CACHE_SIZE)
+                flowFields.pop().evict();
+            field = new FlowField(this);
+            field.build(goal, flowFieldFrontiers);
+        } else if (!field.isValid()) {
+            field.build(goal, flowFieldFrontiers);
+        }
+        flowFields.insert(0, field);
+        return field;
+    }
+
+    /**
+     * Returns the connected component index of this grid, labelling it on the first call.
+     * From then on it is kept up to date on every cell change.
+     */
+    public ConnectedComponents getConnectedComponents() {
+        if (connectedComponents == null)
+            connectedComponents = new ConnectedComponents(this);
+        return connectedComponents;
+    }
+
+    public abstract boolean isBlocked(int index);
+
+    public abstract float getCost(int index);
+
+    /**
+     * Scans the grid on the first call after a cell change and answers from the result until
+     * the next one.
+     *
+     * @return the cost shared by every open cell, or -1 if costs differ or no cell is open
+     */
+    public float getUniformCost() {
+        if (uniformCostVersion != version) {
+            uniformCost = computeUniformCost();
+            uniformCostVersion = version;
+        }
+        return uniformCost;
+    }
+
+    private float computeUniformCost() {
+        float cost = -1;
+        for (int i = 0; i < size(); i++) {
+            if (isBlocked(i))
+                continue;
+            if (cost == -1)
+                cost = getCost(i);
+            else if (getCost(i) != cost)
+                return -1;
+        }
+        return cost;
+    }
+
+    /**
+     * Writes the open neighbours of a cell into {@code neighbors} in the order
+     * x - 1, x + 1, y - 1, y + 1.
+     *
+     * @param neighbors array with room for at least 4 entries
+     * @return the number of neighbours written
+     */
+    public int getNeighbors(int index, int[] neighbors) {
+        int x = index / height;
+        int y = index - x * height;
+        int count = 0;
+        if (x > 0 && !isBlocked(index - height))
+            neighbors[count++] = index - height;
+        if (x < width - 1 && !isBlocked(index + height))
+            neighbors[count++] = index + height;
+        if (y > 0 && !isBlocked(index - 1))
+            neighbors[count++] = index - 1;
+        if (y < height - 1 && !isBlocked(index + 1))
+            neighbors[count++] = index + 1;
+        return count;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mygdx.game;
+
+/**
+ * Told when the blocked state or cost of a cell changes, see {@link Grid#addListener(GridListener)}.
+ */
+public interface GridListener {
+
+    void cellChanged(Grid grid, int index);
+}
@@ -0,0 +1,56 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * Compact grid without per-cell objects: a float cost and one blocked bit per cell.
+ */
+public class GridMap extends Grid {
+
+    private final float[] costs;
+    private final long[] blocked;
+
+    public GridMap(int width, int height) {
+        super(width, height);
+        costs = new float[width * height];
+        blocked = new long[(width * height + 63) >>> 6];
+        Arrays.fill(costs, 1);
+    }
+
+    public static GridMap copyOf(Grid grid) {
+        GridMap copy = new GridMap(grid.getWidth(), grid.getHeight());
+        for (int i = 0; i < copy.size(); i++) {
+            copy.costs[i] = grid.getCost(i);
+            if (grid.isBlocked(i))
+                copy.setBlocked(i, true);
+        }
+        return copy;
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return (blocked[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void setBlocked(int index, boolean blocked) {
+        if (isBlocked(index) == blocked)
+            return;
+        if (blocked)
+            this.blocked[index >>> 6] |= 1L << index;
+        else
+            this.blocked[index >>> 6] &= ~(1L << index);
+        notifyCellChanged(index);
+    }
+
+    @Override
+    public float getCost(int index) {
+        return costs[index];
+    }
+
+    public void setCost(int index, float cost) {
+        if (costs[index] == cost)
+            return;
+        costs[index] = cost;
+        notifyCellChanged(index);
+    }
+}
@@ -0,0 +1,53 @@
+package com.mygdx.game;
+
+import com.udojava.evalex.DoubleEvaluator;
+import com.udojava.evalex.Expression;
+
+public class HeuristicFunction {
+
+    private final String heuristic;
+    private final DoubleEvaluator evaluator;
+    // nodeX, nodeY, goalX and goalY, in the slots bound by the evaluator
+    private final double[] values = new double[4];
+
+    /**
+     * Parses the heuristic once and checks it against all-zero coordinates.
+     *
+     * @throws Expression.ExpressionException if the heuristic can not be parsed
+     * @throws ArithmeticException            if the heuristic fails for zero coordinates
+     */
+    public HeuristicFunction(String heuristic) {
+        this.heuristic = heuristic;
+        evaluator = new Expression(heuristic).toDoubleEvaluator("nodeX", "nodeY", "goalX", "goalY");
+        evaluate(0, 0, 0, 0);
+    }
+
+    /**
+     * For subclasses that override {@link #evaluate} and {@link #getHeuristic} instead of
+     * parsing an expression.
+     */
+    protected HeuristicFunction() {
+        heuristic = null;
+        evaluator = null;
+    }
+
+    public float evaluate(int nodeX, int nodeY, int goalX, int goalY) {
+        values[0] = nodeX;
+        values[1] = nodeY;
+        values[2] = goalX;
+        values[3] = goalY;
+        return (float) evaluator.eval(values);
+    }
+
+    public String getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * @return a counter that changes whenever estimates may have become lower than before,
+     * for searches that keep keys across queries; always 0 for an expression
+     */
+    public int getVersion() {
+        return 0;
+    }
+}
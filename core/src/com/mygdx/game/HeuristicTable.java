@@ -0,0 +1,74 @@
+package com.mygdx.game;
+
+/**
+ * Heuristic values towards one goal, kept across searches so every cell is evaluated at most
+ * once. Set it on one or more {@link PathFinder}s with
+ * {@link PathFinder#setHeuristicTable(HeuristicTable)}; each search fills in the cells it
+ * reaches, and the next search to the same goal reads them back with an array load.
+ * <p>
+ * The table forgets its values when a search asks for another goal or heuristic, or when
+ * the grid was edited since, as a {@link LandmarkHeuristic} changes with the grid. Like the
+ * path finders, it must only be used from one thread.
+ */
+public class HeuristicTable {
+
+    private final float[] values;
+    private final int[] stamps;
+    private int tableId;
+
+    private HeuristicFunction heuristic;
+    private String expression;
+    private int goal = -1;
+    private int version;
+
+    public HeuristicTable(Grid grid) {
+        values = new float[grid.size()];
+        stamps = new int[grid.size()];
+        tableId = 1;
+    }
+
+    /**
+     * Keeps the values if they were computed for the same goal, heuristic and grid version,
+     * otherwise starts an empty table.
+     */
+    void prepare(HeuristicFunction heuristic, int goal, int version) {
+        String expression = heuristic.getHeuristic();
+        if (heuristic == this.heuristic && expression.equals(this.expression)
+                && goal == this.goal && version == this.version)
+            return;
+        this.heuristic = heuristic;
+        this.expression = expression;
+        this.goal = goal;
+        this.version = version;
+        clear();
+    }
+
+    boolean contains(int index) {
+        return stamps[index] == tableId;
+    }
+
+    float get(int index) {
+        return values[index];
+    }
+
+    void put(int index, float value) {
+        values[index] = value;
+        stamps[index] = tableId;
+    }
+
+    public void clear() {
+        if (++tableId < 0) {
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = 0;
+            }
+            tableId = 1;
+        }
+    }
+
+    /**
+     * @return the goal of the values held, -1 before the first search
+     */
+    public int getGoal() {
+        return goal;
+    }
+}
@@ -0,0 +1,503 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * HPA*: the grid is cut into square clusters. Where two clusters touch, every run of open
+ * cell pairs becomes one entrance (two for runs of {@value #LARGE_ENTRANCE} or more), and the
+ * cells of an entrance become nodes of an abstract graph. Inside each cluster the distances
+ * between its abstract nodes are precomputed. A query connects start and goal to the nodes of
+ * their clusters, runs A* on the abstract graph and then refines only the cluster segments on
+ * the found route.
+ * <p>
+ * Paths are optimal within each cluster but may be slightly longer than a flat A* path overall.
+ * The finder listens to its grid and rebuilds only clusters and borders with edited cells,
+ * lazily at the next query. Call {@link #dispose()} to stop listening.
+ */
+public class HierarchicalPathFinder implements GridListener, Disposable {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int LARGE_ENTRANCE = 6;
+
+    private final Grid grid;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+    private final Cluster[] clusters;
+    private HeuristicFunction heuristic;
+
+    // transitions as (low side cell, high side cell) pairs; vertical border k lies between
+    // cluster k and the cluster to its right, horizontal border k between cluster k and the one above
+    private final IntArray[] verticalBorders;
+    private final IntArray[] horizontalBorders;
+    private final boolean[] verticalDirty;
+    private final boolean[] horizontalDirty;
+    private final boolean[] clusterDirty;
+    private boolean dirty;
+
+    private final SearchState state;
+    private final OpenList frontiers;
+    private int expansions;
+
+    private final float[] localCosts;
+    private final int[] localParents;
+    private final int[] localStamps;
+    private final OpenList localFrontiers;
+    private int localStamp;
+
+    private final FloatArray startCosts = new FloatArray();
+    private final FloatArray goalCosts = new FloatArray();
+    private final IntArray abstractPath = new IntArray();
+    private final IntArray segment = new IntArray();
+    private final int[] neighbors = new int[4];
+    private PathResult detour;
+
+    public HierarchicalPathFinder(Grid grid) {
+        this(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathFinder(Grid grid, int clusterSize) {
+        if (clusterSize < 2)
+            throw new IllegalArgumentException("clusterSize must be at least 2: " + clusterSize);
+        this.grid = grid;
+        this.clusterSize = clusterSize;
+        clustersX = (grid.getWidth() + clusterSize - 1) / clusterSize;
+        clustersY = (grid.getHeight() + clusterSize - 1) / clusterSize;
+        heuristic = new HeuristicFunction(PathFinder.DEFAULT_HEURISTIC);
+
+        int count = clustersX * clustersY;
+        clusters = new Cluster[count];
+        verticalBorders = new IntArray[count];
+        horizontalBorders = new IntArray[count];
+        verticalDirty = new boolean[count];
+        horizontalDirty = new boolean[count];
+        clusterDirty = new boolean[count];
+        for (int i = 0; i < clustersX; i++) {
+            for (int j = 0; j < clustersY; j++) {
+                int x = i * clusterSize;
+                int y = j * clusterSize;
+                int k = i * clustersY + j;
+                clusters[k] = new Cluster(x, y,
+                        Math.min(clusterSize, grid.getWidth() - x), Math.min(clusterSize, grid.getHeight() - y));
+                verticalBorders[k] = new IntArray();
+                horizontalBorders[k] = new IntArray();
+                verticalDirty[k] = i < clustersX - 1;
+                horizontalDirty[k] = j < clustersY - 1;
+                clusterDirty[k] = true;
+            }
+        }
+        dirty = true;
+
+        state = new SearchState(grid.size());
+        frontiers = new IndexedHeap(grid.size());
+        localCosts = new float[clusterSize * clusterSize];
+        localParents = new int[clusterSize * clusterSize];
+        localStamps = new int[clusterSize * clusterSize];
+        localFrontiers = new IndexedHeap(clusterSize * clusterSize);
+
+        grid.addListener(this);
+    }
+
+    public void setHeuristic(HeuristicFunction heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    public int getExpansions() {
+        return expansions;
+    }
+
+    @Override
+    public void cellChanged(Grid grid, int index) {
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        int i = x / clusterSize;
+        int j = y / clusterSize;
+        int k = i * clustersY + j;
+        clusterDirty[k] = true;
+        if (x % clusterSize == 0 && i > 0)
+            verticalDirty[k - clustersY] = true;
+        if (x % clusterSize == clusterSize - 1 && i < clustersX - 1)
+            verticalDirty[k] = true;
+        if (y % clusterSize == 0 && j > 0)
+            horizontalDirty[k - 1] = true;
+        if (y % clusterSize == clusterSize - 1 && j < clustersY - 1)
+            horizontalDirty[k] = true;
+        dirty = true;
+    }
+
+    @Override
+    public void dispose() {
+        grid.removeListener(this);
+    }
+
+    /**
+     * Rebuilds the entrances and distance tables touched by edits since the last call.
+     * Queries call this themselves; calling it up front moves the cost out of the next query.
+     */
+    public void update() {
+        if (!dirty)
+            return;
+        for (int k = 0; k < clusters.length; k++) {
+            if (verticalDirty[k]) {
+                buildVerticalBorder(k);
+                verticalDirty[k] = false;
+                clusterDirty[k] = true;
+                clusterDirty[k + clustersY] = true;
+            }
+            if (horizontalDirty[k]) {
+                buildHorizontalBorder(k);
+                horizontalDirty[k] = false;
+                clusterDirty[k] = true;
+                clusterDirty[k + 1] = true;
+            }
+        }
+        for (int k = 0; k < clusters.length; k++) {
+            if (clusterDirty[k]) {
+                buildCluster(k);
+                clusterDirty[k] = false;
+            }
+        }
+        dirty = false;
+    }
+
+    private void buildVerticalBorder(int k) {
+        IntArray transitions = verticalBorders[k];
+        transitions.clear();
+        Cluster cluster = clusters[k];
+        int x = cluster.x + cluster.width - 1;
+        int runStart = -1;
+        for (int y = cluster.y; y <= cluster.y + cluster.height; y++) {
+            boolean open = y < cluster.y + cluster.height
+                    && !grid.isBlocked(grid.getIndex(x, y)) && !grid.isBlocked(grid.getIndex(x + 1, y));
+            if (open && runStart == -1) {
+                runStart = y;
+            } else if (!open && runStart != -1) {
+                int runEnd = y - 1;
+                if (runEnd - runStart + 1 < LARGE_ENTRANCE) {
+                    int middle = runStart + (runEnd - runStart) / 2;
+                    transitions.add(grid.getIndex(x, middle), grid.getIndex(x + 1, middle));
+                } else {
+                    transitions.add(grid.getIndex(x, runStart), grid.getIndex(x + 1, runStart));
+                    transitions.add(grid.getIndex(x, runEnd), grid.getIndex(x + 1, runEnd));
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void buildHorizontalBorder(int k) {
+        IntArray transitions = horizontalBorders[k];
+        transitions.clear();
+        Cluster cluster = clusters[k];
+        int y = cluster.y + cluster.height - 1;
+        int runStart = -1;
+        for (int x = cluster.x; x <= cluster.x + cluster.width; x++) {
+            boolean open = x < cluster.x + cluster.width
+                    && !grid.isBlocked(grid.getIndex(x, y)) && !grid.isBlocked(grid.getIndex(x, y + 1));
+            if (open && runStart == -1) {
+                runStart = x;
+            } else if (!open && runStart != -1) {
+                int runEnd = x - 1;
+                if (runEnd - runStart + 1 < LARGE_ENTRANCE) {
+                    int middle = runStart + (runEnd - runStart) / 2;
+                    transitions.add(grid.getIndex(middle, y), grid.getIndex(middle, y + 1));
+                } else {
+                    transitions.add(grid.getIndex(runStart, y), grid.getIndex(runStart, y + 1));
+                    transitions.add(grid.getIndex(runEnd, y), grid.getIndex(runEnd, y + 1));
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void buildCluster(int k) {
+        Cluster cluster = clusters[k];
+        cluster.cells.clear();
+        cluster.links.clear();
+        int i = k / clustersY;
+        int j = k % clustersY;
+        if (i > 0)
+            addLinks(cluster, verticalBorders[k - clustersY], false);
+        if (i < clustersX - 1)
+            addLinks(cluster, verticalBorders[k], true);
+        if (j > 0)
+            addLinks(cluster, horizontalBorders[k - 1], false);
+        if (j < clustersY - 1)
+            addLinks(cluster, horizontalBorders[k], true);
+
+        int size = cluster.cells.size;
+        if (cluster.distances.length < size * size)
+            cluster.distances = new float[size * size];
+        for (int s = 0; s < size; s++) {
+            searchCluster(cluster, cluster.cells.get(s), false, -1);
+            for (int t = 0; t < size; t++) {
+                cluster.distances[s * size + t] = getLocalCost(cluster, cluster.cells.get(t));
+            }
+        }
+    }
+
+    private void addLinks(Cluster cluster, IntArray transitions, boolean lowSide) {
+        for (int i = 0; i < transitions.size; i += 2) {
+            int cell = transitions.get(lowSide ? i : i + 1);
+            int partner = transitions.get(lowSide ? i + 1 : i);
+            int slot = cluster.cells.indexOf(cell);
+            if (slot == -1) {
+                slot = cluster.cells.size;
+                cluster.cells.add(cell);
+            }
+            cluster.links.add(slot, partner);
+        }
+    }
+
+    public PathResult findPath(int start, int goal) {
+        return findPath(start, goal, new PathResult());
+    }
+
+    public PathResult findPath(int start, int goal, PathResult result) {
+        update();
+        result.clear();
+        expansions = 0;
+        if (start == goal) {
+            result.set(true, 0);
+            result.getPath().add(start);
+            return result;
+        }
+        if (!grid.getConnectedComponents().isReachable(start, goal))
+            return result;
+        if (grid.isBlocked(start))
+            return findPathFromBlocked(start, goal, result);
+
+        Cluster startCluster = getCluster(start);
+        Cluster goalCluster = getCluster(goal);
+        searchCluster(startCluster, start, false, -1);
+        startCosts.clear();
+        for (int i = 0; i < startCluster.cells.size; i++) {
+            startCosts.add(getLocalCost(startCluster, startCluster.cells.get(i)));
+        }
+        float directCost = startCluster == goalCluster ? getLocalCost(startCluster, goal) : Float.POSITIVE_INFINITY;
+        searchCluster(goalCluster, goal, true, -1);
+        goalCosts.clear();
+        for (int i = 0; i < goalCluster.cells.size; i++) {
+            goalCosts.add(getLocalCost(goalCluster, goalCluster.cells.get(i)));
+        }
+
+        state.begin();
+        frontiers.clear();
+        int goalX = grid.getX(goal);
+        int goalY = grid.getY(goal);
+        state.touch(start);
+        state.fromIndex[start] = -1;
+        state.costSoFar[start] = 0;
+        state.totalCost[start] = heuristic.evaluate(grid.getX(start), grid.getY(start), goalX, goalY);
+        state.category[start] = SearchState.FRONTIER;
+        frontiers.add(start, state.totalCost[start]);
+
+        while (frontiers.size() > 0) {
+            int index = frontiers.pop();
+            state.category[index] = SearchState.VISITED;
+            expansions++;
+            if (index == goal) {
+                result.set(true, state.costSoFar[index]);
+                refine(index, result.getPath());
+                break;
+            }
+
+            if (index == start) {
+                for (int i = 0; i < startCluster.cells.size; i++) {
+                    relax(index, startCluster.cells.get(i), startCosts.get(i), goalX, goalY);
+                }
+                relax(index, goal, directCost, goalX, goalY);
+            }
+            Cluster cluster = getCluster(index);
+            int slot = cluster.cells.indexOf(index);
+            if (slot == -1)
+                continue;
+            int size = cluster.cells.size;
+            for (int t = 0; t < size; t++) {
+                if (t != slot)
+                    relax(index, cluster.cells.get(t), cluster.distances[slot * size + t], goalX, goalY);
+            }
+            for (int i = 0; i < cluster.links.size; i += 2) {
+                if (cluster.links.get(i) == slot) {
+                    int partner = cluster.links.get(i + 1);
+                    relax(index, partner, grid.getCost(partner), goalX, goalY);
+                }
+            }
+            if (cluster == goalCluster)
+                relax(index, goal, goalCosts.get(slot), goalX, goalY);
+        }
+        result.setExpansions(expansions);
+        return result;
+    }
+
+    /**
+     * A blocked start has no entrance of its own, so the path is searched from each open
+     * neighbour and the cheapest one is kept.
+     */
+    private PathResult findPathFromBlocked(int start, int goal, PathResult result) {
+        if (detour == null)
+            detour = new PathResult();
+        int count = grid.getNeighbors(start, neighbors);
+        int totalExpansions = 0;
+        for (int i = 0; i < count; i++) {
+            int neighbor = neighbors[i];
+            findPath(neighbor, goal, detour);
+            totalExpansions += expansions;
+            float cost = grid.getCost(neighbor) + detour.getCost();
+            if (detour.isFound() && (!result.isFound() || cost < result.getCost())) {
+                result.clear();
+                result.set(true, cost);
+                result.getPath().add(start);
+                result.getPath().addAll(detour.getPath());
+            }
+        }
+        expansions = totalExpansions;
+        result.setExpansions(totalExpansions);
+        return result;
+    }
+
+    private void relax(int from, int index, float edgeCost, int goalX, int goalY) {
+        if (edgeCost == Float.POSITIVE_INFINITY)
+            return;
+        float newCost = state.costSoFar[from] + edgeCost;
+        state.touch(index);
+        float nodeHeuristic;
+        if (state.category[index] == SearchState.UNVISITED) {
+            nodeHeuristic = heuristic.evaluate(grid.getX(index), grid.getY(index), goalX, goalY);
+        } else {
+            if (state.costSoFar[index] <= newCost) return;
+            nodeHeuristic = state.totalCost[index] - state.costSoFar[index];
+        }
+        state.costSoFar[index] = newCost;
+        state.totalCost[index] = newCost + nodeHeuristic;
+        state.fromIndex[index] = from;
+        state.category[index] = SearchState.FRONTIER;
+        frontiers.add(index, state.totalCost[index]);
+    }
+
+    /**
+     * Expands the abstract route ending at {@code index} into grid cells. Steps across a
+     * cluster border are single moves; everything else is searched again inside its cluster.
+     */
+    private void refine(int index, IntArray path) {
+        abstractPath.clear();
+        while (state.fromIndex[index] != -1) {
+            abstractPath.add(index);
+            index = state.fromIndex[index];
+        }
+        abstractPath.add(index);
+        abstractPath.reverse();
+
+        path.add(abstractPath.first());
+        for (int i = 1; i < abstractPath.size; i++) {
+            int from = abstractPath.get(i - 1);
+            int to = abstractPath.get(i);
+            Cluster cluster = getCluster(from);
+            if (cluster != getCluster(to)) {
+                path.add(to);
+                continue;
+            }
+            searchCluster(cluster, from, false, to);
+            segment.clear();
+            for (int local = toLocal(cluster, to); local != -1; local = localParents[local]) {
+                segment.add(local);
+            }
+            for (int j = segment.size - 2; j >= 0; j--) {
+                path.add(toCell(cluster, segment.get(j)));
+            }
+        }
+    }
+
+    /**
+     * Dijkstra confined to one cluster. Forward it measures the cost from {@code origin} to each
+     * cell, reversed the cost from each cell to {@code origin}. It stops early once
+     * {@code target} is settled, unless {@code target} is -1.
+     */
+    private void searchCluster(Cluster cluster, int origin, boolean reverse, int target) {
+        if (++localStamp < 0) {
+            localStamp = 1;
+            Arrays.fill(localStamps, 0);
+        }
+        localFrontiers.clear();
+        int originLocal = toLocal(cluster, origin);
+        localCosts[originLocal] = 0;
+        localParents[originLocal] = -1;
+        localStamps[originLocal] = localStamp;
+        localFrontiers.add(originLocal, 0);
+
+        int targetLocal = target == -1 ? -1 : toLocal(cluster, target);
+        while (localFrontiers.size() > 0) {
+            int local = localFrontiers.pop();
+            if (local == targetLocal)
+                return;
+            int lx = local / cluster.height;
+            int ly = local - lx * cluster.height;
+            float cost = localCosts[local];
+            float enterCost = reverse ? grid.getCost(toCell(cluster, local)) : 0;
+            if (lx > 0)
+                relaxLocal(cluster, local - cluster.height, local, cost, enterCost, reverse);
+            if (lx < cluster.width - 1)
+                relaxLocal(cluster, local + cluster.height, local, cost, enterCost, reverse);
+            if (ly > 0)
+                relaxLocal(cluster, local - 1, local, cost, enterCost, reverse);
+            if (ly < cluster.height - 1)
+                relaxLocal(cluster, local + 1, local, cost, enterCost, reverse);
+        }
+    }
+
+    private void relaxLocal(Cluster cluster, int local, int parent, float cost, float enterCost, boolean reverse) {
+        int cell = toCell(cluster, local);
+        if (grid.isBlocked(cell))
+            return;
+        float newCost = cost + (reverse ? enterCost : grid.getCost(cell));
+        if (localStamps[local] == localStamp && localCosts[local] <= newCost)
+            return;
+        localCosts[local] = newCost;
+        localParents[local] = parent;
+        localStamps[local] = localStamp;
+        localFrontiers.add(local, newCost);
+    }
+
+    private float getLocalCost(Cluster cluster, int cell) {
+        int local = toLocal(cluster, cell);
+        return localStamps[local] == localStamp ? localCosts[local] : Float.POSITIVE_INFINITY;
+    }
+
+    private int toLocal(Cluster cluster, int cell) {
+        return (grid.getX(cell) - cluster.x) * cluster.height + grid.getY(cell) - cluster.y;
+    }
+
+    private int toCell(Cluster cluster, int local) {
+        return grid.getIndex(cluster.x + local / cluster.height, cluster.y + local % cluster.height);
+    }
+
+    private Cluster getCluster(int cell) {
+        return clusters[grid.getX(cell) / clusterSize * clustersY + grid.getY(cell) / clusterSize];
+    }
+
+    private static class Cluster {
+
+        final int x;
+        final int y;
+        final int width;
+        final int height;
+        final IntArray cells = new IntArray();
+        final IntArray links = new IntArray();
+        float[] distances = new float[0];
+
+        Cluster(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
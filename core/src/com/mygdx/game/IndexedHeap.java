@@ -0,0 +1,128 @@
+package com.mygdx.game;
+
+import java.util.Arrays;
+
+/**
+ * 4-ary min-heap over cell indices with a position table, so a priority change is sifted
+ * in place instead of removing and adding the cell again.
+ */
+public class IndexedHeap implements OpenList {
+
+    private final int[] heap;
+    private final float[] priorities;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * @param capacity number of cells, every index added must be below it
+     */
+    public IndexedHeap(int capacity) {
+        heap = new int[capacity];
+        priorities = new float[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    @Override
+    public void add(int index, float priority) {
+        int position = positions[index];
+        if (position == -1) {
+            position = size++;
+            heap[position] = index;
+            positions[index] = position;
+            priorities[index] = priority;
+            up(position);
+        } else {
+            float oldPriority = priorities[index];
+            priorities[index] = priority;
+            if (priority < oldPriority)
+                up(position);
+            else
+                down(position);
+        }
+    }
+
+    @Override
+    public int pop() {
+        if (size == 0)
+            throw new IllegalStateException("Open list is empty");
+        int index = heap[0];
+        positions[index] = -1;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            down(0);
+        }
+        return index;
+    }
+
+    @Override
+    public float peekPriority() {
+        if (size == 0)
+            throw new IllegalStateException("Open list is empty");
+        return priorities[heap[0]];
+    }
+
+    @Override
+    public boolean contains(int index) {
+        return positions[index] != -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void up(int position) {
+        int index = heap[position];
+        float priority = priorities[index];
+        while (position > 0) {
+            int parentPosition = (position - 1) >> 2;
+            int parent = heap[parentPosition];
+            if (priority >= priorities[parent])
+                break;
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = index;
+        positions[index] = position;
+    }
+
+    private void down(int position) {
+        int index = heap[position];
+        float priority = priorities[index];
+        while (true) {
+            int firstChild = (position << 2) + 1;
+            if (firstChild >= size)
+                break;
+            int lastChild = Math.min(firstChild + 4, size);
+            int minPosition = firstChild;
+            float minPriority = priorities[heap[firstChild]];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                float childPriority = priorities[heap[child]];
+                if (childPriority < minPriority) {
+                    minPriority = childPriority;
+                    minPosition = child;
+                }
+            }
+            if (minPriority >= priority)
+                break;
+            int minIndex = heap[minPosition];
+            heap[position] = minIndex;
+            positions[minIndex] = position;
+            position = minPosition;
+        }
+        heap[position] = index;
+        positions[index] = position;
+    }
+}
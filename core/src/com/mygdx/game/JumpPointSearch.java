@@ -0,0 +1,191 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Jump Point Search for 4-connected grids where every open cell has the same cost.
+ * Straight runs without a forced turn are skipped over instead of being put on the open
+ * list; vertical runs also scan sideways so no turning point is missed.
+ * {@link PathFinder#findPath(int, int, PathResult)} uses it automatically on uniform grids.
+ */
+public class JumpPointSearch {
+
+    private final Grid grid;
+    private HeuristicFunction heuristic;
+
+    private final SearchState state;
+    private OpenList frontiers;
+
+    private int goal;
+    private int goalX;
+    private int goalY;
+    private float stepCost;
+    private int expansions;
+
+    private final IntArray jumpPoints = new IntArray();
+
+    public JumpPointSearch(Grid grid, HeuristicFunction heuristic) {
+        this(grid, heuristic, new IndexedHeap(grid.size()));
+    }
+
+    public JumpPointSearch(Grid grid, HeuristicFunction heuristic, OpenList openList) {
+        this.grid = grid;
+        this.heuristic = heuristic;
+        state = new SearchState(grid.size());
+        frontiers = openList;
+    }
+
+    public void setHeuristic(HeuristicFunction heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public void setOpenList(OpenList openList) {
+        this.frontiers = openList;
+    }
+
+    public PathResult findPath(int start, int goal) {
+        return findPath(start, goal, new PathResult());
+    }
+
+    /**
+     * @throws IllegalStateException if the open cells of the grid do not share one cost
+     */
+    public PathResult findPath(int start, int goal, PathResult result) {
+        stepCost = grid.getUniformCost();
+        if (stepCost < 0)
+            throw new IllegalStateException("Jump Point Search needs a grid with uniform cost");
+
+        this.goal = goal;
+        goalX = grid.getX(goal);
+        goalY = grid.getY(goal);
+        state.begin();
+        expansions = 0;
+        frontiers.clear();
+        result.clear();
+
+        state.touch(start);
+        state.fromIndex[start] = -1;
+        state.costSoFar[start] = 0;
+        state.totalCost[start] = getNodeHeuristic(start);
+        state.category[start] = SearchState.FRONTIER;
+        frontiers.add(start, state.totalCost[start]);
+
+        while (frontiers.size() > 0) {
+            int current = frontiers.pop();
+            state.category[current] = SearchState.VISITED;
+            expansions++;
+            if (current == goal) {
+                result.set(true, state.costSoFar[current]);
+                buildPath(current, result.getPath());
+                break;
+            }
+            expand(current);
+        }
+        result.setExpansions(expansions);
+        return result;
+    }
+
+    public int getExpansions() {
+        return expansions;
+    }
+
+    private void expand(int index) {
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        int fromIndex = state.fromIndex[index];
+        if (fromIndex == -1) {
+            addJump(index, x, y, -1, 0);
+            addJump(index, x, y, 1, 0);
+            addJump(index, x, y, 0, -1);
+            addJump(index, x, y, 0, 1);
+            return;
+        }
+        int dx = Integer.signum(x - grid.getX(fromIndex));
+        int dy = Integer.signum(y - grid.getY(fromIndex));
+        if (dx != 0) {
+            addJump(index, x, y, 0, -1);
+            addJump(index, x, y, 0, 1);
+            addJump(index, x, y, dx, 0);
+        } else {
+            addJump(index, x, y, -1, 0);
+            addJump(index, x, y, 1, 0);
+            addJump(index, x, y, 0, dy);
+        }
+    }
+
+    private void addJump(int from, int x, int y, int dx, int dy) {
+        int jumpPoint = jump(x + dx, y + dy, dx, dy);
+        if (jumpPoint == -1)
+            return;
+
+        int distance = Math.abs(grid.getX(jumpPoint) - x) + Math.abs(grid.getY(jumpPoint) - y);
+        float newCost = state.costSoFar[from] + distance * stepCost;
+        state.touch(jumpPoint);
+        float nodeHeuristic;
+        if (state.category[jumpPoint] == SearchState.UNVISITED) {
+            nodeHeuristic = getNodeHeuristic(jumpPoint);
+        } else {
+            if (state.costSoFar[jumpPoint] <= newCost) return;
+            nodeHeuristic = state.totalCost[jumpPoint] - state.costSoFar[jumpPoint];
+        }
+        state.costSoFar[jumpPoint] = newCost;
+        state.totalCost[jumpPoint] = newCost + nodeHeuristic;
+        state.fromIndex[jumpPoint] = from;
+        state.category[jumpPoint] = SearchState.FRONTIER;
+        frontiers.add(jumpPoint, state.totalCost[jumpPoint]);
+    }
+
+    /**
+     * Walks from (x, y) in direction (dx, dy) until a jump point is found.
+     *
+     * @return the index of the jump point, or -1 if the run ends at a wall
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        while (isOpen(x, y)) {
+            int index = grid.getIndex(x, y);
+            if (index == goal)
+                return index;
+            if (dx != 0) {
+                if (isOpen(x, y - 1) && !isOpen(x - dx, y - 1) || isOpen(x, y + 1) && !isOpen(x - dx, y + 1))
+                    return index;
+            } else {
+                if (isOpen(x - 1, y) && !isOpen(x - 1, y - dy) || isOpen(x + 1, y) && !isOpen(x + 1, y - dy))
+                    return index;
+                if (jump(x - 1, y, -1, 0) != -1 || jump(x + 1, y, 1, 0) != -1)
+                    return index;
+            }
+            x += dx;
+            y += dy;
+        }
+        return -1;
+    }
+
+    private boolean isOpen(int x, int y) {
+        return x >= 0 && y >= 0 && x < grid.getWidth() && y < grid.getHeight() && !grid.isBlocked(grid.getIndex(x, y));
+    }
+
+    private void buildPath(int index, IntArray path) {
+        jumpPoints.clear();
+        while (state.fromIndex[index] != -1) {
+            jumpPoints.add(index);
+            index = state.fromIndex[index];
+        }
+        jumpPoints.add(index);
+
+        path.add(index);
+        for (int i = jumpPoints.size - 2; i >= 0; i--) {
+            int from = jumpPoints.get(i + 1);
+            int to = jumpPoints.get(i);
+            int step = grid.getX(to) != grid.getX(from) ? grid.getHeight() : 1;
+            if (to < from) step = -step;
+            for (int cell = from + step; cell != to; cell += step) {
+                path.add(cell);
+            }
+            path.add(to);
+        }
+    }
+
+    private float getNodeHeuristic(int index) {
+        return heuristic.evaluate(grid.getX(index), grid.getY(index), goalX, goalY);
+    }
+}
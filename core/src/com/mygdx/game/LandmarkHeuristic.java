@@ -0,0 +1,294 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * ALT heuristic: A*, landmarks and the triangle inequality. A few landmark cells are picked
+ * far apart and the distances from and to each of them are stored for every cell. For a
+ * landmark L, both d(L, goal) - d(L, node) and d(node, L) - d(goal, L) are lower bounds of
+ * d(node, goal), and the heuristic is the largest of them. Around walls and expensive cells
+ * this is far tighter than a distance formula over coordinates.
+ * <p>
+ * The tables only have to stay feasible, never overestimating the cost of any step, for the
+ * bounds to stay admissible. Blocking a cell or raising its cost keeps them feasible, so those
+ * edits cost nothing and merely loosen the bounds. Opening a cell or lowering its cost is
+ * repaired from the edited cell outward before the next evaluation. {@link #rebuild()} makes
+ * the bounds tight again after many edits. Call {@link #dispose()} to stop listening to the grid.
+ */
+public class LandmarkHeuristic extends HeuristicFunction implements GridListener, Disposable {
+
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+
+    private final Grid grid;
+    private final int[] landmarks;
+    private final float[][] fromLandmark;
+    private final float[][] toLandmark;
+    private int landmarkCount;
+    private int version;
+    private boolean lowered;
+
+    private final OpenList frontiers;
+    private final IntArray changed = new IntArray();
+    private final boolean[] changedFlags;
+    private final int[] neighbors = new int[4];
+
+    public LandmarkHeuristic(Grid grid) {
+        this(grid, DEFAULT_LANDMARKS);
+    }
+
+    public LandmarkHeuristic(Grid grid, int landmarks) {
+        if (landmarks < 1)
+            throw new IllegalArgumentException("landmarks must be at least 1: " + landmarks);
+        this.grid = grid;
+        this.landmarks = new int[landmarks];
+        fromLandmark = new float[landmarks][grid.size()];
+        toLandmark = new float[landmarks][grid.size()];
+        frontiers = new IndexedHeap(grid.size());
+        changedFlags = new boolean[grid.size()];
+        rebuild();
+        grid.addListener(this);
+    }
+
+    /**
+     * Picks the landmarks again and recomputes every table. Each landmark is the open cell
+     * farthest from the landmarks picked before it, all within the largest component.
+     */
+    public void rebuild() {
+        version++;
+        for (int i = 0; i < changed.size; i++) {
+            changedFlags[changed.get(i)] = false;
+        }
+        changed.clear();
+
+        landmarkCount = 0;
+        // start in the largest component, landmarks elsewhere would help few queries
+        ConnectedComponents components = grid.getConnectedComponents();
+        int first = -1;
+        for (int i = 0; i < grid.size(); i++) {
+            if (components.getComponentSize(i) > (first == -1 ? 0 : components.getComponentSize(first)))
+                first = i;
+        }
+        if (first == -1)
+            return;
+
+        // the first table doubles as the distance to the nearest landmark picked so far
+        float[] nearest = fromLandmark[0];
+        searchForward(first, nearest);
+        int landmark = findFarthest(nearest);
+        while (landmark != -1 && landmarkCount < landmarks.length) {
+            int k = landmarkCount++;
+            landmarks[k] = landmark;
+            if (k == 0) {
+                searchForward(landmark, fromLandmark[0]);
+            } else {
+                searchForward(landmark, fromLandmark[k]);
+                for (int i = 0; i < nearest.length; i++) {
+                    nearest[i] = Math.min(nearest[i], fromLandmark[k][i]);
+                }
+            }
+            searchBackward(landmark, toLandmark[k]);
+            landmark = findFarthest(nearest);
+        }
+        // the nearest distances were written over the first table, compute it once more
+        if (landmarkCount > 1)
+            searchForward(landmarks[0], fromLandmark[0]);
+    }
+
+    private int findFarthest(float[] distances) {
+        int farthest = -1;
+        float max = 0;
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] > max && distances[i] != INFINITY && !grid.isBlocked(i)) {
+                max = distances[i];
+                farthest = i;
+            }
+        }
+        return farthest;
+    }
+
+    public int getLandmarkCount() {
+        return landmarkCount;
+    }
+
+    public int getLandmark(int i) {
+        return landmarks[i];
+    }
+
+    @Override
+    public float evaluate(int nodeX, int nodeY, int goalX, int goalY) {
+        if (changed.size > 0)
+            update();
+        int node = grid.getIndex(nodeX, nodeY);
+        int goal = grid.getIndex(goalX, goalY);
+        float best = 0;
+        for (int k = 0; k < landmarkCount; k++) {
+            float[] from = fromLandmark[k];
+            float landmarkToGoal = from[goal];
+            float landmarkToNode = from[node];
+            if (landmarkToGoal != INFINITY && landmarkToNode != INFINITY && landmarkToGoal - landmarkToNode > best)
+                best = landmarkToGoal - landmarkToNode;
+            float[] to = toLandmark[k];
+            float nodeToLandmark = to[node];
+            float goalToLandmark = to[goal];
+            if (nodeToLandmark != INFINITY && goalToLandmark != INFINITY && nodeToLandmark - goalToLandmark > best)
+                best = nodeToLandmark - goalToLandmark;
+        }
+        return best;
+    }
+
+    /**
+     * Applies pending edits first. Blocking a cell or raising its cost leaves the version as
+     * it is, since the tables stay the same.
+     */
+    @Override
+    public int getVersion() {
+        if (changed.size > 0)
+            update();
+        return version;
+    }
+
+    @Override
+    public String getHeuristic() {
+        return "ALT (" + landmarkCount + " landmarks)";
+    }
+
+    @Override
+    public void cellChanged(Grid grid, int index) {
+        if (changedFlags[index])
+            return;
+        changedFlags[index] = true;
+        changed.add(index);
+    }
+
+    @Override
+    public void dispose() {
+        grid.removeListener(this);
+    }
+
+    /**
+     * Lowers table entries wherever an opened or cheaper cell made them overestimate a step.
+     */
+    private void update() {
+        lowered = false;
+        for (int k = 0; k < landmarkCount; k++) {
+            float[] from = fromLandmark[k];
+            frontiers.clear();
+            for (int i = 0; i < changed.size; i++) {
+                int cell = changed.get(i);
+                if (grid.isBlocked(cell))
+                    continue;
+                float cost = grid.getCost(cell);
+                int count = getNeighborCells(cell);
+                for (int j = 0; j < count; j++) {
+                    int neighbor = neighbors[j];
+                    if ((neighbor == landmarks[k] || !grid.isBlocked(neighbor)) && from[neighbor] + cost < from[cell]) {
+                        from[cell] = from[neighbor] + cost;
+                        lowered = true;
+                    }
+                }
+                if (from[cell] != INFINITY)
+                    frontiers.add(cell, from[cell]);
+            }
+            propagateForward(landmarks[k], from);
+
+            float[] to = toLandmark[k];
+            frontiers.clear();
+            for (int i = 0; i < changed.size; i++) {
+                int cell = changed.get(i);
+                if (!grid.isBlocked(cell) && to[cell] != INFINITY)
+                    frontiers.add(cell, to[cell]);
+            }
+            propagateBackward(to);
+        }
+        for (int i = 0; i < changed.size; i++) {
+            changedFlags[changed.get(i)] = false;
+        }
+        changed.clear();
+        if (lowered)
+            version++;
+    }
+
+    private void searchForward(int origin, float[] distances) {
+        fill(distances);
+        distances[origin] = 0;
+        frontiers.clear();
+        frontiers.add(origin, 0);
+        propagateForward(origin, distances);
+    }
+
+    /**
+     * Dijkstra from the cells on the open list, entering a cell costs that cell's cost.
+     */
+    private void propagateForward(int origin, float[] distances) {
+        while (frontiers.size() > 0) {
+            int index = frontiers.pop();
+            if (index != origin && grid.isBlocked(index))
+                continue;
+            int count = grid.getNeighbors(index, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                float cost = distances[index] + grid.getCost(neighbor);
+                if (cost < distances[neighbor]) {
+                    distances[neighbor] = cost;
+                    frontiers.add(neighbor, cost);
+                    lowered = true;
+                }
+            }
+        }
+    }
+
+    private void searchBackward(int target, float[] distances) {
+        fill(distances);
+        distances[target] = 0;
+        frontiers.clear();
+        frontiers.add(target, 0);
+        propagateBackward(distances);
+    }
+
+    /**
+     * Dijkstra over reversed steps: a cell passes its distance plus its own cost on to every
+     * neighbour, blocked ones included since a search may start on a blocked cell.
+     */
+    private void propagateBackward(float[] distances) {
+        while (frontiers.size() > 0) {
+            int index = frontiers.pop();
+            if (grid.isBlocked(index))
+                continue;
+            float cost = distances[index] + grid.getCost(index);
+            int count = getNeighborCells(index);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (cost < distances[neighbor]) {
+                    distances[neighbor] = cost;
+                    frontiers.add(neighbor, cost);
+                    lowered = true;
+                }
+            }
+        }
+    }
+
+    private int getNeighborCells(int index) {
+        int height = grid.getHeight();
+        int x = grid.getX(index);
+        int y = index - x * height;
+        int count = 0;
+        if (x > 0)
+            neighbors[count++] = index - height;
+        if (x < grid.getWidth() - 1)
+            neighbors[count++] = index + height;
+        if (y > 0)
+            neighbors[count++] = index - 1;
+        if (y < height - 1)
+            neighbors[count++] = index + 1;
+        return count;
+    }
+
+    private static void fill(float[] distances) {
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = INFINITY;
+        }
+    }
+}
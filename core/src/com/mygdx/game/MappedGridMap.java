@@ -0,0 +1,192 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only grid backed by a memory-mapped map file. Opening a map reads only the header; cells
+ * are paged in by the operating system as searches touch them, and processes that open the same
+ * file share its pages.
+ * <p>
+ * The file is little-endian:
+ * <pre>
+ * offset 0   magic "PSMP"
+ *        4   int   format version, currently 1
+ *        8   int   width
+ *        12  int   height
+ *        16  float cost shared by every open cell, or -1 if costs differ
+ *        20  12 bytes reserved
+ *        32  float cost of every cell in index order, padded to a multiple of 8 bytes
+ *        ..  long  blocked bits, bit i % 64 of word i / 64 is cell i, as in {@link GridMap}
+ * </pre>
+ */
+public class MappedGridMap extends Grid {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 'P' | 'S' << 8 | 'M' << 16 | 'P' << 24;
+    private static final int HEADER_SIZE = 32;
+    // a mapping is limited to 2 GB, so the cost layer is mapped in chunks of 2^28 cells
+    private static final int CHUNK_SHIFT = 28;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final FloatBuffer[] costs;
+    private final LongBuffer blocked;
+    private final float uniformCost;
+
+    private MappedGridMap(int width, int height, float uniformCost, FloatBuffer[] costs, LongBuffer blocked) {
+        super(width, height);
+        this.uniformCost = uniformCost;
+        this.costs = costs;
+        this.blocked = blocked;
+    }
+
+    /**
+     * Maps a file written by {@link #write(Grid, File)}.
+     *
+     * @throws GdxRuntimeException if the file can not be read or is not a map file of a known version
+     */
+    public static MappedGridMap open(File file) {
+        RandomAccessFile input = null;
+        try {
+            input = new RandomAccessFile(file, "r");
+            FileChannel channel = input.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC)
+                throw new GdxRuntimeException("Not a map file: " + file);
+            int version = header.getInt(4);
+            if (version != VERSION)
+                throw new GdxRuntimeException("Unsupported map file version " + version + ": " + file);
+            int width = header.getInt(8);
+            int height = header.getInt(12);
+            float uniformCost = header.getFloat(16);
+
+            long size = (long) width * height;
+            long blockedOffset = HEADER_SIZE + getCostLayerSize(size);
+            long blockedSize = getBlockedLayerSize(size);
+            if (width <= 0 || height <= 0 || size > Integer.MAX_VALUE || channel.size() < blockedOffset + blockedSize)
+                throw new GdxRuntimeException("Corrupt map file: " + file);
+
+            FloatBuffer[] costs = new FloatBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < costs.length; i++) {
+                long first = (long) i << CHUNK_SHIFT;
+                long cells = Math.min(size - first, 1L << CHUNK_SHIFT);
+                costs[i] = map(channel, HEADER_SIZE + first * 4, cells * 4).asFloatBuffer();
+            }
+            LongBuffer blocked = map(channel, blockedOffset, blockedSize).asLongBuffer();
+            return new MappedGridMap(width, height, uniformCost, costs, blocked);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not map " + file, e);
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes the costs and blocked cells of any grid, for example a {@link GameMap}, in the map
+     * file format.
+     *
+     * @throws GdxRuntimeException if the file can not be written
+     */
+    public static void write(Grid grid, File file) {
+        RandomAccessFile output = null;
+        try {
+            output = new RandomAccessFile(file, "rw");
+            output.setLength(0);
+            FileChannel channel = output.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(grid.getWidth());
+            buffer.putInt(grid.getHeight());
+            buffer.putFloat(grid.getUniformCost());
+            buffer.putInt(0).putInt(0).putInt(0);
+
+            int size = grid.size();
+            for (int i = 0; i < size; i++) {
+                if (buffer.remaining() < 8)
+                    flush(channel, buffer);
+                buffer.putFloat(grid.getCost(i));
+            }
+            for (long i = (long) size * 4; i < getCostLayerSize(size); i++) {
+                buffer.put((byte) 0);
+            }
+            for (int word = 0; word < getBlockedLayerSize(size) / 8; word++) {
+                if (buffer.remaining() < 8)
+                    flush(channel, buffer);
+                long bits = 0;
+                long end = Math.min(size, (word + 1L) * 64);
+                for (int i = word << 6; i < end; i++) {
+                    if (grid.isBlocked(i))
+                        bits |= 1L << i;
+                }
+                buffer.putLong(bits);
+            }
+            flush(channel, buffer);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write " + file, e);
+        } finally {
+            if (output != null) {
+                try {
+                    output.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long getCostLayerSize(long size) {
+        return (size * 4 + 7) & ~7L;
+    }
+
+    private static long getBlockedLayerSize(long size) {
+        return ((size + 63) >>> 6) * 8;
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return (blocked.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    @Override
+    public float getCost(int index) {
+        return costs[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+
+    /**
+     * Read from the header, so huge maps are not scanned.
+     */
+    @Override
+    public float getUniformCost() {
+        return uniformCost;
+    }
+}
@@ -0,0 +1,176 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Reads the map ({@code .map}) and scenario ({@code .scen}) files of the Moving AI grid
+ * benchmark sets. Map column and row become the x and y of a cell.
+ * <p>
+ * Ground ({@code .} and {@code G}) and swamp ({@code S}) become open cells of cost 1; out of
+ * bounds ({@code @} and {@code O}), trees ({@code T}) and water ({@code W}) become blocked.
+ * The reference lengths of the scenarios assume octile movement, eight directions with
+ * diagonals costing the square root of 2, so a four-connected path is never shorter.
+ */
+public final class MovingAi {
+
+    /**
+     * One query of a scenario file.
+     */
+    public static class Scenario {
+
+        final int bucket;
+        final String map;
+        final int mapWidth;
+        final int mapHeight;
+        final int startX;
+        final int startY;
+        final int goalX;
+        final int goalY;
+        final float optimalLength;
+
+        Scenario(int bucket, String map, int mapWidth, int mapHeight,
+                 int startX, int startY, int goalX, int goalY, float optimalLength) {
+            this.bucket = bucket;
+            this.map = map;
+            this.mapWidth = mapWidth;
+            this.mapHeight = mapHeight;
+            this.startX = startX;
+            this.startY = startY;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            this.optimalLength = optimalLength;
+        }
+
+        public int getBucket() {
+            return bucket;
+        }
+
+        /**
+         * @return the path of the map file as written in the scenario file
+         */
+        public String getMap() {
+            return map;
+        }
+
+        public int getMapWidth() {
+            return mapWidth;
+        }
+
+        public int getMapHeight() {
+            return mapHeight;
+        }
+
+        public int getStartX() {
+            return startX;
+        }
+
+        public int getStartY() {
+            return startY;
+        }
+
+        public int getGoalX() {
+            return goalX;
+        }
+
+        public int getGoalY() {
+            return goalY;
+        }
+
+        /**
+         * @return the reference length of the shortest octile path
+         */
+        public float getOptimalLength() {
+            return optimalLength;
+        }
+    }
+
+    private MovingAi() {
+    }
+
+    public static GridMap readMap(FileHandle file) {
+        return parseMap(file.readString());
+    }
+
+    /**
+     * @throws GdxRuntimeException if the text is not a map in the Moving AI format
+     */
+    public static GridMap parseMap(String text) {
+        String[] lines = text.split("\r?\n");
+        int width = -1;
+        int height = -1;
+        int line = 0;
+        while (true) {
+            if (line == lines.length)
+                throw new GdxRuntimeException("Map has no \"map\" line");
+            String[] fields = lines[line++].trim().split("\\s+");
+            if (fields[0].equals("map"))
+                break;
+            if (fields[0].equals("width"))
+                width = parseInt(fields, 1);
+            else if (fields[0].equals("height"))
+                height = parseInt(fields, 1);
+        }
+        if (width <= 0 || height <= 0)
+            throw new GdxRuntimeException("Map has no valid width and height: " + width + "x" + height);
+        if (lines.length - line < height)
+            throw new GdxRuntimeException("Map has " + (lines.length - line) + " rows, expected " + height);
+
+        GridMap map = new GridMap(width, height);
+        for (int y = 0; y < height; y++) {
+            String row = lines[line + y];
+            if (row.length() < width)
+                throw new GdxRuntimeException("Map row " + y + " has " + row.length() + " cells, expected " + width);
+            for (int x = 0; x < width; x++) {
+                if (!isPassable(row.charAt(x)))
+                    map.setBlocked(map.getIndex(x, y), true);
+            }
+        }
+        return map;
+    }
+
+    private static boolean isPassable(char terrain) {
+        return terrain == '.' || terrain == 'G' || terrain == 'S';
+    }
+
+    public static Array<Scenario> readScenarios(FileHandle file) {
+        return parseScenarios(file.readString());
+    }
+
+    /**
+     * @throws GdxRuntimeException if the text is not a scenario list in the Moving AI format
+     */
+    public static Array<Scenario> parseScenarios(String text) {
+        String[] lines = text.split("\r?\n");
+        Array<Scenario> scenarios = new Array<Scenario>();
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.length() == 0 || line.startsWith("version"))
+                continue;
+            String[] fields = line.split("\\s+");
+            if (fields.length < 9)
+                throw new GdxRuntimeException("Scenario line " + (i + 1) + " has " + fields.length + " fields, expected 9");
+            float optimalLength;
+            try {
+                optimalLength = Float.parseFloat(fields[8]);
+            } catch (NumberFormatException e) {
+                throw new GdxRuntimeException("Scenario line " + (i + 1) + " has no valid length: " + fields[8]);
+            }
+            scenarios.add(new Scenario(parseInt(fields, 0), fields[1], parseInt(fields, 2), parseInt(fields, 3),
+                    parseInt(fields, 4), parseInt(fields, 5), parseInt(fields, 6), parseInt(fields, 7),
+                    optimalLength));
+        }
+        return scenarios;
+    }
+
+    private static int parseInt(String[] fields, int i) {
+        if (i >= fields.length)
+            throw new GdxRuntimeException("Missing value after " + fields[i - 1]);
+        try {
+            return Integer.parseInt(fields[i]);
+        } catch (NumberFormatException e) {
+            throw new GdxRuntimeException("Not a number: " + fields[i]);
+        }
+    }
+}
@@ -12,7 +12,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Pools;
 import com.badlogic.gdx.utils.StringBuilder;
 import com.badlogic.gdx.utils.viewport.FitViewport;
@@ -311,6 +311,7 @@ public class MyGdxGame extends InputAdapter implements ApplicationListener {
         rightUi.add(new Label("- กดเริ่มหาเส้นทาง เพื่อดู Animation การทำงาน", skin)).colspan(2);
 
         pathFinder = new PathFinder(map);
+        pathFinder.setSearchListener(new NodeStateUpdater(map, pathFinder));
         Label heuristicLabel = new Label(pathFinder.getHeuristic(), skin);
         heuristicLabel.setEllipsis(true);
 
@@ -374,7 +375,6 @@ public class MyGdxGame extends InputAdapter implements ApplicationListener {
                 node.setSearchId(-1);
             }
         }
-        map.updateNearbyNode();
 
         pathFinder.getPath().clear();
 
@@ -506,13 +506,12 @@ public class MyGdxGame extends InputAdapter implements ApplicationListener {
                 setGoalMode = true;
             } else {
                 if (node.state != Node.NodeState.BLOCKED) {
-                    node.state = Node.NodeState.BLOCKED;
+                    map.setBlocked(node, true);
                     addBlockedMode = true;
                 } else {
-                    node.state = Node.NodeState.DEFAULT;
+                    map.setBlocked(node, false);
                     removeBlockedMode = true;
                 }
-                map.updateNearbyNode();
             }
         }
 
@@ -532,12 +531,10 @@ public class MyGdxGame extends InputAdapter implements ApplicationListener {
             } else if (setGoalMode) {
                 goalNode = node;
             } else if (addBlockedMode && node != startNode && node != goalNode) {
-                node.state = Node.NodeState.BLOCKED;
-                map.updateNearbyNode();
+                map.setBlocked(node, true);
             }
         } else if (removeBlockedMode) {
-            node.state = Node.NodeState.DEFAULT;
-            map.updateNearbyNode();
+            map.setBlocked(node, false);
         }
         return false;
     }
@@ -556,14 +553,9 @@ public class MyGdxGame extends InputAdapter implements ApplicationListener {
         int x = (int) (position.x / 34f);
         int y = (int) (position.y / 34f);
         Pools.free(position);
-        for (int i = 0; i < map.getWidth(); i++) {
-            for (int j = 0; j < map.getHeight(); j++) {
-                Node node = map.getNode(i, j);
-                if (node.x == x && node.y == y)
-                    return node;
-            }
-        }
-        return null;
+        if (x < 0 || y < 0 || x >= map.getWidth() || y >= map.getHeight())
+            return null;
+        return map.getNode(x, y);
     }
 
     private void clearBlocked() {
@@ -571,18 +563,17 @@ public class MyGdxGame extends InputAdapter implements ApplicationListener {
             for (int j = 0; j < map.getHeight(); j++) {
                 Node node = map.getNode(i, j);
                 if (node.state == Node.NodeState.BLOCKED)
-                    node.state = Node.NodeState.DEFAULT;
+                    map.setBlocked(node, false);
             }
         }
-        map.updateNearbyNode();
     }
 
     private void drawPath() {
         if (pathFinder.getPath().size > 0) {
-            Array<Node> path = pathFinder.getPath();
+            IntArray path = pathFinder.getPath();
             for (int i = 0; i + 1 < path.size; i++) {
-                Node firstNode = path.get(i);
-                Node secondNode = path.get(i + 1);
+                Node firstNode = map.getNode(path.get(i));
+                Node secondNode = map.getNode(path.get(i + 1));
 
                 if (firstNode.x == secondNode.x && firstNode.y > secondNode.y) {
                     pathVertical.setPosition(firstNode.x * 34f, firstNode.y * 34f - 17);
@@ -4,7 +4,6 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.utils.Array;
 
 public class Node {
 
@@ -36,30 +35,18 @@ public class Node {
     private BitmapFontCache cache;
     private String oldCostText = "";
 
+    private final GameMap map;
     private final int index;
-    private final Array<Node> nearbyNodes;
 
     private int searchId;
 
     public Node(GameMap map, int x, int y) {
         this.x = x;
         this.y = y;
+        this.map = map;
         cost = 1;
         index = x * map.getHeight() + y;
         state = NodeState.DEFAULT;
-        nearbyNodes = new Array<Node>(4);
-    }
-
-    public void updateNearbyNode(GameMap map) {
-        nearbyNodes.clear();
-        if (x > 0)
-            nearbyNodes.add(map.getNode(x - 1, y));
-        if (x < map.getWidth() - 1)
-            nearbyNodes.add(map.getNode(x + 1, y));
-        if (y > 0)
-            nearbyNodes.add(map.getNode(x, y - 1));
-        if (y < map.getHeight() - 1)
-            nearbyNodes.add(map.getNode(x, y + 1));
     }
 
     public void draw(PathFinder pathFinder) {
@@ -99,16 +86,16 @@ public class Node {
         if (showCost) {
             text = "" + Math.round(cost);
         } else if (searchId == pathFinder.getSearchId()) {
-            final PathFinder.NodeRecord nodeRecord = pathFinder.getNodeRecords()[index];
-            if (nodeRecord != null) {
+            final SearchState state = pathFinder.getSearchState();
+            if (state.isReached(index)) {
                 if (showCostSoFar) {
-                    int costSoFar = Math.round(nodeRecord.costSoFar);
+                    int costSoFar = Math.round(state.getCostSoFar(index));
                     text = "" + costSoFar;
                 } else if (showHeuristicCost) {
-                    int heuristicCost = Math.round(nodeRecord.getTotalCost() - nodeRecord.costSoFar);
+                    int heuristicCost = Math.round(state.getTotalCost(index) - state.getCostSoFar(index));
                     text = "" + heuristicCost;
                 } else if (showAStarCost) {
-                    int aStarCost = Math.round(nodeRecord.getTotalCost());
+                    int aStarCost = Math.round(state.getTotalCost(index));
                     text = "" + aStarCost;
                 }
             }
@@ -132,34 +119,32 @@ public class Node {
         if (!showArrow)
             return;
 
-        final PathFinder.NodeRecord nodeRecord = pathFinder.getNodeRecords()[index];
-
-        if (nodeRecord != null) {
-            Node cameFrom = nodeRecord.fromNode;
-            if (cameFrom != null) {
-                if (cameFrom.x == x && cameFrom.y > y) {
-                    game.arrowUp.setPosition(x * 34f, y * 34f);
-                    game.arrowUp.draw(game.batch);
-                } else if (cameFrom.x == x && cameFrom.y < y) {
-                    game.arrowDown.setPosition(x * 34f, y * 34f);
-                    game.arrowDown.draw(game.batch);
-                } else if (cameFrom.x > x && cameFrom.y == y) {
-                    game.arrowRight.setPosition(x * 34f, y * 34f);
-                    game.arrowRight.draw(game.batch);
-                } else if (cameFrom.x < x && cameFrom.y == y) {
-                    game.arrowLeft.setPosition(x * 34f, y * 34f);
-                    game.arrowLeft.draw(game.batch);
-                }
+        final SearchState state = pathFinder.getSearchState();
+
+        if (state.isReached(index) && state.getFromIndex(index) != -1) {
+            Node cameFrom = map.getNode(state.getFromIndex(index));
+            if (cameFrom.x == x && cameFrom.y > y) {
+                game.arrowUp.setPosition(x * 34f, y * 34f);
+                game.arrowUp.draw(game.batch);
+            } else if (cameFrom.x == x && cameFrom.y < y) {
+                game.arrowDown.setPosition(x * 34f, y * 34f);
+                game.arrowDown.draw(game.batch);
+            } else if (cameFrom.x > x && cameFrom.y == y) {
+                game.arrowRight.setPosition(x * 34f, y * 34f);
+                game.arrowRight.draw(game.batch);
+            } else if (cameFrom.x < x && cameFrom.y == y) {
+                game.arrowLeft.setPosition(x * 34f, y * 34f);
+                game.arrowLeft.draw(game.batch);
             }
         }
     }
 
-    public int getIndex() {
-        return index;
+    public boolean isBlocked() {
+        return state == NodeState.BLOCKED;
     }
 
-    public Array<Node> getNearbyNodes() {
-        return nearbyNodes;
+    public int getIndex() {
+        return index;
     }
 
     public void setSearchId(int searchId) {
@@ -0,0 +1,42 @@
+package com.mygdx.game;
+
+/**
+ * Mirrors the search progress into the render state of the nodes.
+ */
+public class NodeStateUpdater implements SearchListener {
+
+    private final GameMap map;
+    private final PathFinder pathFinder;
+
+    public NodeStateUpdater(GameMap map, PathFinder pathFinder) {
+        this.map = map;
+        this.pathFinder = pathFinder;
+    }
+
+    @Override
+    public void frontierAdded(int index) {
+        Node node = map.getNode(index);
+        node.state = Node.NodeState.FRONTIER;
+        node.setSearchId(pathFinder.getSearchId());
+    }
+
+    @Override
+    public void frontierSelected(int index) {
+        map.getNode(index).state = Node.NodeState.CURRENT_FRONTIER;
+    }
+
+    @Override
+    public void neighborFound(int index) {
+        map.getNode(index).drawNeighborFrame = true;
+    }
+
+    @Override
+    public void neighborProcessed(int index) {
+        map.getNode(index).drawNeighborFrame = false;
+    }
+
+    @Override
+    public void visited(int index) {
+        map.getNode(index).state = Node.NodeState.VISITED;
+    }
+}
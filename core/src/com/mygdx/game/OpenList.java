@@ -0,0 +1,31 @@
+package com.mygdx.game;
+
+/**
+ * Priority queue of cell indices used as the open list of a search. Lower priorities come first.
+ */
+public interface OpenList {
+
+    /**
+     * Inserts a cell, or changes its priority if it is already in the list.
+     */
+    void add(int index, float priority);
+
+    /**
+     * Removes and returns the cell with the lowest priority.
+     *
+     * @throws IllegalStateException if the list is empty
+     */
+    int pop();
+
+    /**
+     * @return the lowest priority in the list
+     * @throws IllegalStateException if the list is empty
+     */
+    float peekPriority();
+
+    boolean contains(int index);
+
+    int size();
+
+    void clear();
+}
@@ -0,0 +1,235 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Remembers the paths found by a {@link PathFinder}, keyed by start, goal and heuristic, and
+ * evicts the least recently used one once full. Only found paths are kept; enable
+ * {@link PathFinder#setReachabilityCheckEnabled(boolean)} to reject unreachable goals quickly.
+ * <p>
+ * Edits of the grid only drop the paths they can affect: a path crossing the edited cell, and
+ * a path that could become shorter by passing through it, judged by the Manhattan distance
+ * via the cell times the lowest cost of any open cell. Call {@link #dispose()} to stop
+ * listening to the grid.
+ */
+public class PathCache implements GridListener, Disposable {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final PathFinder pathFinder;
+    private final Grid grid;
+    private final int capacity;
+    private final LongMap<Entry> entries;
+    // most recently used first, the sentinel links both ends of the list
+    private final Entry head = new Entry();
+    // never raised, so it stays a lower bound after a cell becomes more expensive
+    private float minCost = Float.MAX_VALUE;
+
+    private int hits;
+    private int misses;
+    private int evictions;
+    private int invalidations;
+
+    private static class Entry {
+        long key;
+        String heuristic;
+        final IntArray path = new IntArray();
+        float cost;
+        int startX, startY, goalX, goalY;
+        int minX, minY, maxX, maxY;
+        Entry previous, next;
+    }
+
+    public PathCache(PathFinder pathFinder) {
+        this(pathFinder, DEFAULT_CAPACITY);
+    }
+
+    public PathCache(PathFinder pathFinder, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        this.pathFinder = pathFinder;
+        this.grid = pathFinder.getGrid();
+        this.capacity = capacity;
+        entries = new LongMap<Entry>(capacity);
+        head.previous = head;
+        head.next = head;
+        for (int i = 0; i < grid.size(); i++) {
+            if (!grid.isBlocked(i))
+                minCost = Math.min(minCost, grid.getCost(i));
+        }
+        grid.addListener(this);
+    }
+
+    public PathResult findPath(Node start, Node goal, PathResult result) {
+        return findPath(start.getIndex(), goal.getIndex(), result);
+    }
+
+    /**
+     * Copies a cached path into {@code result}, or searches with the path finder and caches
+     * the path it finds. A cached result reports no expansions.
+     */
+    public PathResult findPath(int start, int goal, PathResult result) {
+        long key = (long) start << 32 | goal & 0xFFFFFFFFL;
+        String heuristic = pathFinder.getHeuristic();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.heuristic.equals(heuristic)) {
+            hits++;
+            unlink(entry);
+            linkFirst(entry);
+            result.clear();
+            result.getPath().addAll(entry.path);
+            result.set(true, entry.cost);
+            return result;
+        }
+
+        misses++;
+        pathFinder.findPath(start, goal, result);
+        if (!result.isFound()) {
+            if (entry != null)
+                remove(entry);
+            return result;
+        }
+        if (entry != null) {
+            unlink(entry);
+        } else if (entries.size < capacity) {
+            entry = new Entry();
+            entries.put(key, entry);
+        } else {
+            // reuse the least recently used entry
+            entry = head.previous;
+            unlink(entry);
+            entries.remove(entry.key);
+            entries.put(key, entry);
+            evictions++;
+        }
+        store(entry, key, heuristic, result);
+        linkFirst(entry);
+        return result;
+    }
+
+    private void store(Entry entry, long key, String heuristic, PathResult result) {
+        entry.key = key;
+        entry.heuristic = heuristic;
+        entry.cost = result.getCost();
+        entry.path.clear();
+        entry.path.addAll(result.getPath());
+        IntArray path = entry.path;
+        entry.minX = entry.minY = Integer.MAX_VALUE;
+        entry.maxX = entry.maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < path.size; i++) {
+            int x = grid.getX(path.get(i));
+            int y = grid.getY(path.get(i));
+            entry.minX = Math.min(entry.minX, x);
+            entry.minY = Math.min(entry.minY, y);
+            entry.maxX = Math.max(entry.maxX, x);
+            entry.maxY = Math.max(entry.maxY, y);
+        }
+        entry.startX = grid.getX(path.first());
+        entry.startY = grid.getY(path.first());
+        entry.goalX = grid.getX(path.peek());
+        entry.goalY = grid.getY(path.peek());
+    }
+
+    @Override
+    public void cellChanged(Grid grid, int index) {
+        boolean open = !grid.isBlocked(index);
+        if (open)
+            minCost = Math.min(minCost, grid.getCost(index));
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        Entry entry = head.next;
+        while (entry != head) {
+            Entry next = entry.next;
+            if (crosses(entry, x, y, index) || open && canPassBetter(entry, x, y)) {
+                remove(entry);
+                invalidations++;
+            }
+            entry = next;
+        }
+    }
+
+    private static boolean crosses(Entry entry, int x, int y, int index) {
+        return x >= entry.minX && x <= entry.maxX && y >= entry.minY && y <= entry.maxY
+                && entry.path.contains(index);
+    }
+
+    private boolean canPassBetter(Entry entry, int x, int y) {
+        int distance = Math.abs(entry.startX - x) + Math.abs(entry.startY - y)
+                + Math.abs(x - entry.goalX) + Math.abs(y - entry.goalY);
+        return distance * minCost < entry.cost;
+    }
+
+    private void remove(Entry entry) {
+        unlink(entry);
+        entries.remove(entry.key);
+    }
+
+    private void unlink(Entry entry) {
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+    }
+
+    private void linkFirst(Entry entry) {
+        entry.previous = head;
+        entry.next = head.next;
+        head.next.previous = entry;
+        head.next = entry;
+    }
+
+    public void clear() {
+        entries.clear();
+        head.previous = head;
+        head.next = head;
+    }
+
+    public int size() {
+        return entries.size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return hits divided by lookups, 0 before the first lookup
+     */
+    public float getHitRate() {
+        return hits + misses == 0 ? 0 : hits / (float) (hits + misses);
+    }
+
+    /**
+     * @return paths dropped to make room for new ones
+     */
+    public int getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return paths dropped because an edit could change them
+     */
+    public int getInvalidations() {
+        return invalidations;
+    }
+
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        invalidations = 0;
+    }
+
+    @Override
+    public void dispose() {
+        grid.removeListener(this);
+    }
+}
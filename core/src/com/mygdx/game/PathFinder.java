@@ -1,70 +1,100 @@
 package com.mygdx.game;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.BinaryHeap;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.udojava.evalex.Expression;
 
-import java.math.BigDecimal;
-
 public class PathFinder {
 
-    private static final String DEFAULT_HEURISTIC = "ABS(nodeX - goalX) + ABS(nodeY - goalY)";
+    static final String DEFAULT_HEURISTIC = "ABS(nodeX - goalX) + ABS(nodeY - goalY)";
+
+    private final Grid grid;
+    private int start;
+    private int goal;
+    private HeuristicFunction heuristic = new HeuristicFunction(DEFAULT_HEURISTIC);
+    private HeuristicTable heuristicTable;
 
-    private Node start;
-    private Node goal;
-    private String heuristic = DEFAULT_HEURISTIC;
+    private final SearchState state;
+    private OpenList frontiers;
+    private int current;
 
-    private NodeRecord[] nodeRecords;
-    private BinaryHeap<NodeRecord> frontiers;
-    private NodeRecord current;
+    private boolean found;
+    private int expansions;
 
-    private int searchId;
+    private JumpPointSearch jumpPointSearch;
+    private boolean jumpPointSearchEnabled = true;
+    private BidirectionalSearch bidirectionalSearch;
+    private boolean bidirectional;
+    private boolean reachabilityCheckEnabled;
 
-    private Array<Node> path;
-    private Array<Node> neighbors;
+    private SearchListener listener;
+    private SearchStats stats;
 
-    private static final int UNVISITED = 0;
-    private static final int FRONTIER = 1;
-    private static final int VISITED = 2;
+    private IntArray path;
+    private int[] neighbors;
+    private int neighborCount;
 
-    public PathFinder(GameMap map) {
-        path = new Array<Node>();
-        neighbors = new Array<Node>(false, 4);
+    public PathFinder(Grid grid) {
+        this.grid = grid;
+        path = new IntArray();
+        neighbors = new int[4];
 
-        nodeRecords = new NodeRecord[map.getWidth() * map.getHeight()];
-        frontiers = new BinaryHeap<NodeRecord>();
+        state = new SearchState(grid.size());
+        frontiers = new IndexedHeap(grid.size());
     }
 
     public void start(Node start, Node goal) {
+        start(start.getIndex(), goal.getIndex());
+    }
+
+    public void start(int start, int goal) {
         this.start = start;
         this.goal = goal;
 
-        if (++searchId < 0) searchId = 1;
+        state.begin();
 
+        found = false;
+        expansions = 0;
         path.clear();
         frontiers.clear();
+        if (stats != null) stats.reset();
+        if (heuristicTable != null) heuristicTable.prepare(heuristic, goal, grid.getVersion());
 
-        NodeRecord startRecord = getNodeRecord(start);
-        startRecord.node = start;
-        startRecord.fromNode = null;
-        startRecord.costSoFar = 0;
+        state.touch(start);
+        state.fromIndex[start] = -1;
+        state.costSoFar[start] = 0;
+        state.totalCost[start] = getNodeHeuristic(start);
 
-        frontiers.add(startRecord, getNodeHeuristic(start, goal));
-        start.state = Node.NodeState.FRONTIER;
-        start.setSearchId(getSearchId());
+        frontiers.add(start, state.totalCost[start]);
+        if (stats != null) stats.heapAdds++;
+        if (listener != null) listener.frontierAdded(start);
     }
 
     public boolean nextFrontier() {
-        if (frontiers.size == 0)
+        if (frontiers.size() == 0)
             return false;
 
         current = frontiers.pop();
-        current.node.state = Node.NodeState.CURRENT_FRONTIER;
-        current.category = FRONTIER;
-
-        if (current.node.equals(goal)) {
-            buildPath();
+        state.category[current] = SearchState.FRONTIER;
+        expansions++;
+        if (stats != null) {
+            stats.heapRemoves++;
+            stats.expansions++;
+        }
+        if (listener != null) listener.frontierSelected(current);
+
+        if (current == goal) {
+            found = true;
+            if (stats != null) {
+                long time = TimeUtils.nanoTime();
+                buildPath();
+                stats.pathNanos = TimeUtils.nanoTime() - time;
+                stats.found = true;
+                stats.cost = state.costSoFar[goal];
+                stats.pathLength = Math.max(path.size, 1);
+            } else {
+                buildPath();
+            }
             return false;
         }
 
@@ -73,145 +103,292 @@ public class PathFinder {
     }
 
     private void findNeighbors() {
-        neighbors.clear();
-        for (int i = 0; i < current.node.getNearbyNodes().size; i++) {
-            Node node = current.node.getNearbyNodes().get(i);
-            if (node.state != Node.NodeState.BLOCKED) {
-                neighbors.add(node);
-                node.drawNeighborFrame = true;
+        neighborCount = grid.getNeighbors(current, neighbors);
+        if (listener != null) {
+            for (int i = 0; i < neighborCount; i++) {
+                listener.neighborFound(neighbors[i]);
             }
         }
     }
 
     public boolean nextNeighbor() {
-        if (neighbors.size == 0) {
-            current.node.state = Node.NodeState.VISITED;
-            current.category = VISITED;
+        if (neighborCount == 0) {
+            state.category[current] = SearchState.VISITED;
+            if (listener != null) listener.visited(current);
             return false;
         }
 
-        Node neighbor = neighbors.pop();
-        neighbor.drawNeighborFrame = false;
-        float newCost = current.costSoFar + neighbor.cost;
+        int neighbor = neighbors[--neighborCount];
+        if (listener != null) listener.neighborProcessed(neighbor);
+        float newCost = state.costSoFar[current] + grid.getCost(neighbor);
         float nodeHeuristic;
 
-        NodeRecord nodeRecord = getNodeRecord(neighbor);
+        state.touch(neighbor);
 
-        if (nodeRecord.category == VISITED) {
-            if (nodeRecord.costSoFar <= newCost) return true;
-            nodeHeuristic = nodeRecord.getTotalCost() - nodeRecord.costSoFar;
-        } else if (nodeRecord.category == FRONTIER) {
-            if (nodeRecord.costSoFar <= newCost) return true;
-            frontiers.remove(nodeRecord);
-            nodeHeuristic = nodeRecord.getTotalCost() - nodeRecord.costSoFar;
+        if (state.category[neighbor] == SearchState.UNVISITED) {
+            nodeHeuristic = getNodeHeuristic(neighbor);
         } else {
-            nodeHeuristic = getNodeHeuristic(neighbor, goal);
+            if (state.costSoFar[neighbor] <= newCost) return true;
+            nodeHeuristic = state.totalCost[neighbor] - state.costSoFar[neighbor];
+            if (stats != null && state.category[neighbor] == SearchState.VISITED) stats.reopened++;
         }
 
-        nodeRecord.costSoFar = newCost;
-        nodeRecord.fromNode = current.node;
-        nodeRecord.category = FRONTIER;
-        frontiers.add(nodeRecord, newCost + nodeHeuristic);
-
-        neighbor.setSearchId(getSearchId());
-        neighbor.state = Node.NodeState.FRONTIER;
+        state.costSoFar[neighbor] = newCost;
+        state.totalCost[neighbor] = newCost + nodeHeuristic;
+        state.fromIndex[neighbor] = current;
+        state.category[neighbor] = SearchState.FRONTIER;
+        frontiers.add(neighbor, state.totalCost[neighbor]);
+        if (stats != null) stats.heapAdds++;
+        if (listener != null) listener.frontierAdded(neighbor);
         return true;
     }
 
+    public PathResult findPath(Node start, Node goal) {
+        return findPath(start.getIndex(), goal.getIndex(), new PathResult());
+    }
+
+    public PathResult findPath(Node start, Node goal, PathResult result) {
+        return findPath(start.getIndex(), goal.getIndex(), result);
+    }
+
+    public PathResult findPath(int start, int goal) {
+        return findPath(start, goal, new PathResult());
+    }
+
+    /**
+     * Runs the whole search. If the reachability check is enabled, a goal outside the start's
+     * connected component is rejected without searching. When no listener is attached,
+     * bidirectional A* is used if it is enabled, otherwise Jump Point Search if it is enabled
+     * and every open cell of the grid has the same cost.
+     */
+    public PathResult findPath(int start, int goal, PathResult result) {
+        long time = stats != null ? TimeUtils.nanoTime() : 0;
+        if (reachabilityCheckEnabled && !grid.getConnectedComponents().isReachable(start, goal)) {
+            result.clear();
+            return recordDelegated(result, time);
+        }
+        if (bidirectional && listener == null) {
+            if (bidirectionalSearch == null)
+                bidirectionalSearch = new BidirectionalSearch(grid, heuristic);
+            bidirectionalSearch.setHeuristic(heuristic);
+            return recordDelegated(bidirectionalSearch.findPath(start, goal, result), time);
+        }
+        if (jumpPointSearchEnabled && listener == null && grid.getUniformCost() >= 0) {
+            if (jumpPointSearch == null)
+                jumpPointSearch = new JumpPointSearch(grid, heuristic, frontiers);
+            jumpPointSearch.setHeuristic(heuristic);
+            jumpPointSearch.setOpenList(frontiers);
+            return recordDelegated(jumpPointSearch.findPath(start, goal, result), time);
+        }
+
+        start(start, goal);
+        if (stats != null) {
+            long now = TimeUtils.nanoTime();
+            stats.startNanos = now - time;
+            time = now;
+        }
+        while (nextFrontier()) {
+            while (nextNeighbor()) {
+            }
+        }
+        if (stats != null) stats.searchNanos = TimeUtils.nanoTime() - time - stats.pathNanos;
+        return getResult(result);
+    }
+
+    private PathResult recordDelegated(PathResult result, long time) {
+        if (stats != null) {
+            stats.reset();
+            stats.searchNanos = TimeUtils.nanoTime() - time;
+            stats.expansions = result.getExpansions();
+            stats.found = result.isFound();
+            stats.cost = result.getCost();
+            stats.pathLength = result.getPath().size;
+        }
+        return result;
+    }
+
+    /**
+     * Continues the search begun by {@link #start(int, int)} for up to {@code maxExpansions}
+     * frontier expansions. It can be called again later to resume exactly where it stopped.
+     *
+     * @return true if the search is not finished yet
+     */
+    public boolean step(int maxExpansions) {
+        long time = stats != null ? TimeUtils.nanoTime() : 0;
+        long pathNanos = stats != null ? stats.pathNanos : 0;
+        boolean unfinished = true;
+        for (int i = 0; i < maxExpansions && unfinished; i++) {
+            unfinished = nextFrontier();
+            while (unfinished && nextNeighbor()) {
+            }
+        }
+        if (stats != null) stats.searchNanos += TimeUtils.nanoTime() - time - (stats.pathNanos - pathNanos);
+        return unfinished;
+    }
+
+    /**
+     * Stores the outcome of the last finished search in {@code result}.
+     */
+    public PathResult getResult(PathResult result) {
+        result.clear();
+        if (found) {
+            result.set(true, state.costSoFar[goal]);
+            if (path.size == 0) {
+                result.getPath().add(start);
+            } else {
+                result.getPath().addAll(path);
+            }
+        }
+        result.setExpansions(expansions);
+        return result;
+    }
+
     private void buildPath() {
         if (goal == start)
             return;
 
-        while (current.fromNode != null) {
-            path.add(current.node);
-            current = nodeRecords[current.fromNode.getIndex()];
+        int index = current;
+        while (state.fromIndex[index] != -1) {
+            path.add(index);
+            index = state.fromIndex[index];
         }
         path.add(start);
         path.reverse();
     }
 
-    public Array<Node> getPath() {
+    public IntArray getPath() {
         return path;
     }
 
-    private float getNodeHeuristic(Node node, Node goal) {
-        BigDecimal nodeX = new BigDecimal(node.x);
-        BigDecimal nodeY = new BigDecimal(node.y);
-        BigDecimal goalX = new BigDecimal(goal.x);
-        BigDecimal goalY = new BigDecimal(goal.y);
-
-        Expression expression = new Expression(heuristic)
-                .with("nodeX", nodeX)
-                .with("goalX", goalX)
-                .with("nodeY", nodeY)
-                .with("goalY", goalY);
-        return expression.eval().floatValue();
+    private float getNodeHeuristic(int index) {
+        if (heuristicTable != null && heuristicTable.contains(index))
+            return heuristicTable.get(index);
+        if (stats != null) stats.heuristicEvaluations++;
+        float value = heuristic.evaluate(grid.getX(index), grid.getY(index), grid.getX(goal), grid.getY(goal));
+        if (heuristicTable != null) heuristicTable.put(index, value);
+        return value;
     }
 
-    private NodeRecord getNodeRecord (Node node) {
-        int index = node.getIndex();
-        NodeRecord nr = nodeRecords[index];
-        if (nr != null) {
-            if (nr.searchId != searchId) {
-                nr.category = UNVISITED;
-                nr.searchId = searchId;
-            }
-            return nr;
-        }
-        nr = nodeRecords[index] = new NodeRecord();
-        nr.node = node;
-        nr.searchId = searchId;
-        return nr;
+    /**
+     * @return the per-cell costs and parents of the current search, for display
+     */
+    public SearchState getSearchState() {
+        return state;
     }
 
-    public static class NodeRecord extends BinaryHeap.Node {
+    public Grid getGrid() {
+        return grid;
+    }
 
-        Node node;
-        Node fromNode;
-        float costSoFar;
-        int category;
-        int searchId;
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
 
-        public NodeRecord() {
-            super(0);
-        }
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
 
-        public float getTotalCost() {
-            return getValue();
-        }
+    public OpenList getOpenList() {
+        return frontiers;
     }
 
-    public NodeRecord[] getNodeRecords() {
-        return nodeRecords;
+    /**
+     * Replaces the open list used by following searches. It must accept every cell index of the grid.
+     */
+    public void setOpenList(OpenList openList) {
+        this.frontiers = openList;
     }
 
     public int getSearchId() {
-        return searchId;
+        return state.getSearchId();
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public int getExpansions() {
+        return expansions;
+    }
+
+    public boolean isJumpPointSearchEnabled() {
+        return jumpPointSearchEnabled;
+    }
+
+    public void setJumpPointSearchEnabled(boolean jumpPointSearchEnabled) {
+        this.jumpPointSearchEnabled = jumpPointSearchEnabled;
+    }
+
+    public boolean isReachabilityCheckEnabled() {
+        return reachabilityCheckEnabled;
+    }
+
+    /**
+     * Lets {@link #findPath(int, int, PathResult)} reject unreachable goals through
+     * {@link Grid#getConnectedComponents()} instead of searching the whole component of the
+     * start. Off by default: the first check labels every cell of the grid, which only pays
+     * off when a grid is queried often and unreachable goals are common.
+     */
+    public void setReachabilityCheckEnabled(boolean reachabilityCheckEnabled) {
+        this.reachabilityCheckEnabled = reachabilityCheckEnabled;
+    }
+
+    /**
+     * Collects counters and timings of every following search into {@code stats}, or stops
+     * collecting when it is null.
+     */
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Looks heuristic values up in {@code table} before evaluating them, or always evaluates
+     * when it is null. Searches that {@code findPath} hands to Jump Point Search or
+     * bidirectional A* do not use it.
+     */
+    public void setHeuristicTable(HeuristicTable table) {
+        this.heuristicTable = table;
+    }
+
+    public HeuristicTable getHeuristicTable() {
+        return heuristicTable;
+    }
+
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    public SearchListener getSearchListener() {
+        return listener;
     }
 
     public boolean setHeuristic(String heuristic) {
-        this.heuristic = heuristic;
-        Expression expression = new Expression(heuristic)
-                .with("nodeX", new BigDecimal(0))
-                .with("goalX", new BigDecimal(0))
-                .with("nodeY", new BigDecimal(0))
-                .with("goalY", new BigDecimal(0));
+        HeuristicFunction function = null;
         boolean hasException = false;
         try {
-            expression.eval();
+            function = new HeuristicFunction(heuristic);
         } catch (Expression.ExpressionException e) {
             hasException = true;
         } catch (ArithmeticException e) {
             hasException = true;
         }
         if (hasException) {
-            this.heuristic = DEFAULT_HEURISTIC;
+            this.heuristic = new HeuristicFunction(DEFAULT_HEURISTIC);
             return false;
         }
+        this.heuristic = function;
         return true;
     }
 
+    public void setHeuristic(HeuristicFunction heuristic) {
+        this.heuristic = heuristic;
+    }
+
     public String getHeuristic() {
-        return heuristic;
+        return heuristic.getHeuristic();
     }
-}
\ No newline at end of file
+}
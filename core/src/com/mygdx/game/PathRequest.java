@@ -0,0 +1,71 @@
+package com.mygdx.game;
+
+/**
+ * A query handed to a {@link PathScheduler}. Its status and progress can be read every frame;
+ * the result is complete once {@link #isDone()} returns true.
+ */
+public class PathRequest {
+
+    public enum Status {
+        WAITING, RUNNING, DONE, CANCELLED
+    }
+
+    final int start;
+    final int goal;
+    final PathResult result = new PathResult();
+    Status status = Status.WAITING;
+    int expansions;
+    int frames;
+    int lastFrame;
+    int restarts;
+    boolean stale;
+
+    PathRequest(int start, int goal) {
+        this.start = start;
+        this.goal = goal;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isDone() {
+        return status == Status.DONE;
+    }
+
+    /**
+     * @return the outcome, only meaningful once the request is done
+     */
+    public PathResult getResult() {
+        return result;
+    }
+
+    /**
+     * @return the frontier expansions spent on this request so far
+     */
+    public int getExpansions() {
+        return expansions;
+    }
+
+    /**
+     * @return the number of {@link PathScheduler#update()} calls that advanced this request
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return how often the search was started over because an edit of the grid touched it
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+}
@@ -0,0 +1,59 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Outcome of {@link PathFinder#findPath(int, int)}. The path holds cell indices
+ * from start to goal and is empty when no path was found.
+ */
+public class PathResult {
+
+    private final IntArray path = new IntArray();
+    private boolean found;
+    private float cost;
+    private int expansions;
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public float getCost() {
+        return cost;
+    }
+
+    /**
+     * @return the number of nodes taken from the open list, a measure of search effort
+     */
+    public int getExpansions() {
+        return expansions;
+    }
+
+    public IntArray getPath() {
+        return path;
+    }
+
+    public Array<Node> getNodes(GameMap map) {
+        Array<Node> nodes = new Array<Node>(path.size);
+        for (int i = 0; i < path.size; i++) {
+            nodes.add(map.getNode(path.get(i)));
+        }
+        return nodes;
+    }
+
+    void set(boolean found, float cost) {
+        this.found = found;
+        this.cost = cost;
+    }
+
+    void setExpansions(int expansions) {
+        this.expansions = expansions;
+    }
+
+    public void clear() {
+        path.clear();
+        found = false;
+        cost = 0;
+        expansions = 0;
+    }
+}
@@ -0,0 +1,221 @@
+package com.mygdx.game;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Queue;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Runs many path queries a little at a time so that no frame has to wait for a long search.
+ * Every {@link #update()} spends at most an expansion budget, and optionally a time budget, on
+ * the running searches. It takes turns between them in slices of a few expansions, and a search
+ * resumes exactly where its last slice stopped.
+ * <p>
+ * Each running search needs its own {@link PathFinder}, so only a fixed number run at once and
+ * the others wait in submission order.
+ * <p>
+ * An edit of the grid only starts a search over if the search already reached the edited cell
+ * or one of its neighbours; cells it has not reached yet are read in their new state when it
+ * gets there. Finished results therefore match the current grid, while edits far from a long
+ * search do not keep it from finishing. Call {@link #dispose()} to stop listening to the grid.
+ */
+public class PathScheduler implements GridListener, Disposable {
+
+    public static final int DEFAULT_MAX_RUNNING = 4;
+    public static final int DEFAULT_EXPANSION_BUDGET = 1000;
+    public static final int DEFAULT_SLICE = 32;
+
+    private final Grid grid;
+    private final PathFinder[] pathFinders;
+    private final PathRequest[] running;
+    private final Queue<PathRequest> waiting = new Queue<PathRequest>();
+    private int runningCount;
+    private int turn;
+    private int frame;
+
+    private int expansionBudget = DEFAULT_EXPANSION_BUDGET;
+    private long timeBudget;
+    private int slice = DEFAULT_SLICE;
+
+    public PathScheduler(Grid grid) {
+        this(grid, DEFAULT_MAX_RUNNING);
+    }
+
+    public PathScheduler(Grid grid, int maxRunning) {
+        if (maxRunning < 1)
+            throw new IllegalArgumentException("maxRunning must be at least 1: " + maxRunning);
+        this.grid = grid;
+        pathFinders = new PathFinder[maxRunning];
+        running = new PathRequest[maxRunning];
+        for (int i = 0; i < maxRunning; i++) {
+            pathFinders[i] = new PathFinder(grid);
+        }
+        grid.addListener(this);
+    }
+
+    /**
+     * Queues a query. A goal that cannot be reached from the start is answered at once.
+     */
+    public PathRequest submit(int start, int goal) {
+        PathRequest request = new PathRequest(start, goal);
+        if (!grid.getConnectedComponents().isReachable(start, goal)) {
+            request.status = PathRequest.Status.DONE;
+            return request;
+        }
+        waiting.addLast(request);
+        fillSlots();
+        return request;
+    }
+
+    public void cancel(PathRequest request) {
+        if (request.status == PathRequest.Status.WAITING) {
+            waiting.removeValue(request, true);
+        } else if (request.status == PathRequest.Status.RUNNING) {
+            for (int i = 0; i < running.length; i++) {
+                if (running[i] == request) {
+                    running[i] = null;
+                    runningCount--;
+                }
+            }
+            fillSlots();
+        } else {
+            return;
+        }
+        request.status = PathRequest.Status.CANCELLED;
+    }
+
+    /**
+     * Advances the running searches until the expansion budget or the time budget of this
+     * frame is spent, or no search is left.
+     *
+     * @return the number of expansions spent
+     */
+    public int update() {
+        long deadline = timeBudget > 0 ? TimeUtils.nanoTime() + timeBudget : 0;
+        int spent = 0;
+        frame++;
+        while (runningCount > 0 && spent < expansionBudget) {
+            turn = (turn + 1) % running.length;
+            PathRequest request = running[turn];
+            if (request == null)
+                continue;
+
+            PathFinder pathFinder = pathFinders[turn];
+            if (request.stale) {
+                request.stale = false;
+                request.restarts++;
+                pathFinder.start(request.start, request.goal);
+            }
+            int before = pathFinder.getExpansions();
+            boolean unfinished = pathFinder.step(Math.min(slice, expansionBudget - spent));
+            int expansions = pathFinder.getExpansions() - before;
+            spent += expansions;
+            // summed per slice, so expansions before a restart stay counted
+            request.expansions += expansions;
+            if (request.lastFrame != frame) {
+                request.lastFrame = frame;
+                request.frames++;
+            }
+
+            if (!unfinished) {
+                pathFinder.getResult(request.result);
+                request.status = PathRequest.Status.DONE;
+                running[turn] = null;
+                runningCount--;
+                fillSlots();
+            }
+            if (deadline != 0 && TimeUtils.nanoTime() - deadline >= 0)
+                break;
+        }
+        return spent;
+    }
+
+    private void fillSlots() {
+        for (int i = 0; i < running.length && waiting.size > 0; i++) {
+            if (running[i] != null)
+                continue;
+            PathRequest request = waiting.removeFirst();
+            request.status = PathRequest.Status.RUNNING;
+            pathFinders[i].start(request.start, request.goal);
+            running[i] = request;
+            runningCount++;
+        }
+    }
+
+    @Override
+    public void cellChanged(Grid grid, int index) {
+        for (int i = 0; i < running.length; i++) {
+            PathRequest request = running[i];
+            if (request != null && !request.stale && isAffected(pathFinders[i].getSearchState(), index))
+                request.stale = true;
+        }
+    }
+
+    // a reached cell has its old state baked into the search, and an expanded neighbour may
+    // have skipped the cell while it was blocked
+    private boolean isAffected(SearchState state, int index) {
+        int height = grid.getHeight();
+        int x = grid.getX(index);
+        int y = index - x * height;
+        return state.isReached(index)
+                || x > 0 && state.isReached(index - height)
+                || x < grid.getWidth() - 1 && state.isReached(index + height)
+                || y > 0 && state.isReached(index - 1)
+                || y < height - 1 && state.isReached(index + 1);
+    }
+
+    /**
+     * @return the number of requests that are running or waiting
+     */
+    public int getPendingCount() {
+        return runningCount + waiting.size;
+    }
+
+    public int getExpansionBudget() {
+        return expansionBudget;
+    }
+
+    /**
+     * Caps the expansions spent by one {@link #update()}, shared by all running searches.
+     */
+    public void setExpansionBudget(int expansionBudget) {
+        if (expansionBudget < 1)
+            throw new IllegalArgumentException("expansionBudget must be at least 1: " + expansionBudget);
+        this.expansionBudget = expansionBudget;
+    }
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Caps the time spent by one {@link #update()}, checked after every slice. 0 means no cap.
+     */
+    public void setTimeBudget(long nanos) {
+        this.timeBudget = nanos;
+    }
+
+    /**
+     * Sets how many expansions a search runs before the next one takes its turn.
+     */
+    public void setSlice(int slice) {
+        if (slice < 1)
+            throw new IllegalArgumentException("slice must be at least 1: " + slice);
+        this.slice = slice;
+    }
+
+    /**
+     * @return false if the heuristic is invalid, in which case the default one is used
+     */
+    public boolean setHeuristic(String heuristic) {
+        boolean success = true;
+        for (PathFinder pathFinder : pathFinders) {
+            success &= pathFinder.setHeuristic(heuristic);
+        }
+        return success;
+    }
+
+    @Override
+    public void dispose() {
+        grid.removeListener(this);
+    }
+}
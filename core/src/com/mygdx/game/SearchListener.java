@@ -0,0 +1,18 @@
+package com.mygdx.game;
+
+/**
+ * Receives the steps of a {@link PathFinder} search. Nodes are passed by index,
+ * see {@link GameMap#getNode(int)}.
+ */
+public interface SearchListener {
+
+    void frontierAdded(int index);
+
+    void frontierSelected(int index);
+
+    void neighborFound(int index);
+
+    void neighborProcessed(int index);
+
+    void visited(int index);
+}
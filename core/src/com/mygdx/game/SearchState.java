@@ -0,0 +1,79 @@
+package com.mygdx.game;
+
+/**
+ * Bookkeeping of one A* search kept in parallel primitive arrays indexed by cell, instead of
+ * one record object per cell. A cell only belongs to the current search when its stamp matches
+ * the search id, so starting a new search never has to clear the arrays.
+ */
+public class SearchState {
+
+    static final byte UNVISITED = 0;
+    static final byte FRONTIER = 1;
+    static final byte VISITED = 2;
+
+    final float[] costSoFar;
+    final float[] totalCost;
+    final int[] fromIndex;
+    final byte[] category;
+    private final int[] stamps;
+    private int searchId;
+
+    public SearchState(int size) {
+        costSoFar = new float[size];
+        totalCost = new float[size];
+        fromIndex = new int[size];
+        category = new byte[size];
+        stamps = new int[size];
+    }
+
+    /**
+     * Starts a new search; every cell reads as untouched afterwards.
+     *
+     * @return the id of the new search
+     */
+    public int begin() {
+        if (++searchId < 0) {
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = 0;
+            }
+            searchId = 1;
+        }
+        return searchId;
+    }
+
+    /**
+     * Claims a cell for the current search, marking it unvisited if an older search left it.
+     */
+    void touch(int index) {
+        if (stamps[index] != searchId) {
+            stamps[index] = searchId;
+            category[index] = UNVISITED;
+        }
+    }
+
+    public int getSearchId() {
+        return searchId;
+    }
+
+    /**
+     * @return true if the current search has reached the cell
+     */
+    public boolean isReached(int index) {
+        return stamps[index] == searchId;
+    }
+
+    public float getCostSoFar(int index) {
+        return costSoFar[index];
+    }
+
+    public float getTotalCost(int index) {
+        return totalCost[index];
+    }
+
+    /**
+     * @return the cell the current best path to {@code index} comes from, -1 for the start
+     */
+    public int getFromIndex(int index) {
+        return fromIndex[index];
+    }
+}
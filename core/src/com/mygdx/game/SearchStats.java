@@ -0,0 +1,125 @@
+package com.mygdx.game;
+
+/**
+ * Counters and timings of the last search of a {@link PathFinder}. They are only collected
+ * while a stats object is set with {@link PathFinder#setStats(SearchStats)}, so a finder
+ * without one pays nothing for them.
+ * <p>
+ * Timings cover the calls of {@link PathFinder#findPath(int, int, PathResult)} and
+ * {@link PathFinder#step(int)}; a search driven one step at a time through
+ * {@link PathFinder#nextFrontier()} only gets its counters. Searches that
+ * {@code findPath} hands to Jump Point Search or bidirectional A* only report expansions,
+ * the path and the total time.
+ */
+public class SearchStats {
+
+    int expansions;
+    int reopened;
+    int heapAdds;
+    int heapRemoves;
+    int heuristicEvaluations;
+    boolean found;
+    int pathLength;
+    float cost;
+    long startNanos;
+    long searchNanos;
+    long pathNanos;
+
+    public void reset() {
+        expansions = 0;
+        reopened = 0;
+        heapAdds = 0;
+        heapRemoves = 0;
+        heuristicEvaluations = 0;
+        found = false;
+        pathLength = 0;
+        cost = 0;
+        startNanos = 0;
+        searchNanos = 0;
+        pathNanos = 0;
+    }
+
+    public int getExpansions() {
+        return expansions;
+    }
+
+    /**
+     * @return how often a cell already expanded was put back on the open list with a lower cost
+     */
+    public int getReopened() {
+        return reopened;
+    }
+
+    /**
+     * @return cells added to the open list, including priority changes of cells already on it
+     */
+    public int getHeapAdds() {
+        return heapAdds;
+    }
+
+    public int getHeapRemoves() {
+        return heapRemoves;
+    }
+
+    /**
+     * @return heuristic values computed, values read from a {@link HeuristicTable} excluded
+     */
+    public int getHeuristicEvaluations() {
+        return heuristicEvaluations;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    /**
+     * @return the number of cells on the path, start and goal included
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    public float getCost() {
+        return cost;
+    }
+
+    /**
+     * @return nanoseconds spent resetting the search and queuing the start
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return nanoseconds spent expanding cells, path building excluded
+     */
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    /**
+     * @return nanoseconds spent following the parents back from the goal
+     */
+    public long getPathNanos() {
+        return pathNanos;
+    }
+
+    public long getTotalNanos() {
+        return startNanos + searchNanos + pathNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "expansions=" + expansions
+                + " reopened=" + reopened
+                + " heapAdds=" + heapAdds
+                + " heapRemoves=" + heapRemoves
+                + " heuristicEvaluations=" + heuristicEvaluations
+                + " found=" + found
+                + " pathLength=" + pathLength
+                + " cost=" + cost
+                + " startNanos=" + startNanos
+                + " searchNanos=" + searchNanos
+                + " pathNanos=" + pathNanos;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 Udo Klimaschewski
+ * 
+ * http://UdoJava.com/
+ * http://about.me/udo.klimaschewski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package com.udojava.evalex;
+
+/**
+ * An expression compiled into a JVM class by {@link ExpressionCompiler}.<br>
+ * <br>
+ * The parameters are bound to the variable names given to
+ * {@link ExpressionCompiler#compile(Expression, String...)}, in that order.
+ * Unused trailing parameters are ignored.
+ */
+public interface CompiledExpression {
+
+	/**
+	 * Evaluates the expression.
+	 *
+	 * @param v0
+	 *            The value of the first variable.
+	 * @param v1
+	 *            The value of the second variable.
+	 * @param v2
+	 *            The value of the third variable.
+	 * @param v3
+	 *            The value of the fourth variable.
+	 * @return The result of the expression.
+	 */
+	public abstract double eval(double v0, double v1, double v2, double v3);
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2018 Udo Klimaschewski
+ * 
+ * http://UdoJava.com/
+ * http://about.me/udo.klimaschewski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package com.udojava.evalex;
+
+import java.math.BigDecimal;
+
+/**
+ * Evaluates an {@link Expression} over primitive <code>double</code> values.<br>
+ * <br>
+ * Instances are created by {@link Expression#toDoubleEvaluator()}. The
+ * expression is compiled once; afterwards {@link #eval()} runs on a
+ * preallocated operand stack and does not allocate. Variables are set with
+ * {@link #setVariable(String, double)} and keep their value between
+ * evaluations.<br>
+ * <br>
+ * Evaluators created by {@link Expression#toDoubleEvaluator(String...)}
+ * bind variables to slots: {@link #eval(double[])} takes their values from
+ * an array indexed by slot, and {@link #setSlot(int, double)} sets a single
+ * one, both without looking up names.<br>
+ * <br>
+ * If the expression can not be run on <code>double</code> values, the
+ * evaluator falls back to the {@link BigDecimal} implementation of the
+ * expression and {@link #isFallback()} returns <code>true</code>.<br>
+ * <br>
+ * An evaluator is not thread safe, create one per thread instead.
+ */
+public class DoubleEvaluator {
+
+	/**
+	 * The expression this evaluator was created for.
+	 */
+	private final Expression expression;
+
+	/**
+	 * The compiled program, <code>null</code> when falling back to the
+	 * {@link BigDecimal} implementation.
+	 */
+	private final DoubleProgram program;
+
+	/**
+	 * The variable names, indexed by slot.
+	 */
+	private final String[] slotNames;
+
+	/**
+	 * The number of slots bound by
+	 * {@link Expression#bindVariables(String...)}, they come first.
+	 */
+	private final int bound;
+
+	/**
+	 * The current variable values, indexed by slot.
+	 */
+	private final double[] slots;
+
+	/**
+	 * The preallocated operand stack.
+	 */
+	private final double[] stack;
+
+	/**
+	 * The slots of {@link #eval(double[])}: the given values of the bound
+	 * variables followed by the current values of the others.
+	 */
+	private final double[] scratch;
+
+	/**
+	 * The values of {@link #eval(double[])} when falling back to the
+	 * {@link BigDecimal} implementation.
+	 */
+	private final BigDecimal[] fallbackValues;
+
+	/**
+	 * Creates a new evaluator for an expression.
+	 *
+	 * @param expression
+	 *            The expression to evaluate.
+	 */
+	DoubleEvaluator(Expression expression) {
+		this.expression = expression;
+		String[] boundVariables = expression.getBoundVariables();
+		this.bound = boundVariables.length;
+		this.program = DoubleProgram.compile(expression, boundVariables);
+		if (program == null) {
+			slotNames = boundVariables;
+			slots = null;
+			stack = null;
+			scratch = null;
+			fallbackValues = new BigDecimal[bound];
+			return;
+		}
+		slotNames = program.variables;
+		slots = new double[slotNames.length];
+		for (int i = 0; i < slots.length; i++) {
+			// bound variables need not be declared and start at 0
+			Expression.LazyNumber value = expression.hasVariable(slotNames[i]) ? expression.getVariable(slotNames[i])
+					: null;
+			slots[i] = value == null ? 0 : value.eval().doubleValue();
+		}
+		stack = new double[Math.max(1, program.maxStack)];
+		scratch = slots.length == bound ? null : new double[slots.length];
+		fallbackValues = null;
+	}
+
+	/**
+	 * Gets whether this evaluator falls back to the {@link BigDecimal}
+	 * implementation of the expression.
+	 *
+	 * @return <code>true</code> if every evaluation goes through
+	 *         {@link Expression#eval()}.
+	 */
+	public boolean isFallback() {
+		return program == null;
+	}
+
+	/**
+	 * Sets a variable value. Names that are not used by the expression are
+	 * ignored.
+	 *
+	 * @param variable
+	 *            The variable name.
+	 * @param value
+	 *            The variable value.
+	 * @return The evaluator, allows to chain methods.
+	 */
+	public DoubleEvaluator setVariable(String variable, double value) {
+		if (program == null) {
+			expression.setVariable(variable, new BigDecimal(value));
+			return this;
+		}
+		int slot = getSlot(variable);
+		if (slot >= 0) {
+			slots[slot] = value;
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the slot of a variable.
+	 *
+	 * @param variable
+	 *            The variable name.
+	 * @return The slot, <code>-1</code> if the variable is neither bound nor
+	 *         used by the expression.
+	 */
+	public int getSlot(String variable) {
+		for (int i = 0; i < slotNames.length; i++) {
+			if (slotNames[i].equalsIgnoreCase(variable)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Sets the value of the variable in a slot.
+	 *
+	 * @param slot
+	 *            The slot, see {@link #getSlot(String)}.
+	 * @param value
+	 *            The variable value.
+	 * @return The evaluator, allows to chain methods.
+	 */
+	public DoubleEvaluator setSlot(int slot, double value) {
+		if (program == null) {
+			expression.setVariable(slotNames[slot], new BigDecimal(value));
+		} else {
+			slots[slot] = value;
+		}
+		return this;
+	}
+
+	/**
+	 * Sets a variable value.
+	 *
+	 * @param variable
+	 *            The variable name.
+	 * @param value
+	 *            The variable value.
+	 * @return The evaluator, allows to chain methods.
+	 */
+	public DoubleEvaluator with(String variable, double value) {
+		return setVariable(variable, value);
+	}
+
+	/**
+	 * Evaluates the expression.
+	 *
+	 * @return The result of the expression, <code>NaN</code> if a fallback
+	 *         evaluation returns <code>NULL</code>.
+	 */
+	public double eval() {
+		if (program == null) {
+			BigDecimal result = expression.eval();
+			return result == null ? Double.NaN : result.doubleValue();
+		}
+		return program.run(slots, stack);
+	}
+
+	/**
+	 * Evaluates the expression with the values of the bound variables taken
+	 * from an array. The values are only used for this evaluation, they do not
+	 * replace the ones set with {@link #setSlot(int, double)} or
+	 * {@link #setVariable(String, double)}.
+	 *
+	 * @param values
+	 *            The values of the variables bound by
+	 *            {@link Expression#bindVariables(String...)}, indexed by slot.
+	 * @return The result of the expression, <code>NaN</code> if a fallback
+	 *         evaluation returns <code>NULL</code>.
+	 */
+	public double eval(double[] values) {
+		if (program == null) {
+			for (int i = 0; i < bound; i++) {
+				fallbackValues[i] = new BigDecimal(values[i]);
+			}
+			BigDecimal result = expression.eval(fallbackValues);
+			return result == null ? Double.NaN : result.doubleValue();
+		}
+		if (scratch == null) {
+			return program.run(values, stack);
+		}
+		System.arraycopy(values, 0, scratch, 0, bound);
+		System.arraycopy(slots, bound, scratch, bound, slots.length - bound);
+		return program.run(scratch, stack);
+	}
+
+	/**
+	 * Gets the expression this evaluator was created for.
+	 *
+	 * @return The expression.
+	 */
+	public Expression getExpression() {
+		return expression;
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2018 Udo Klimaschewski
+ * 
+ * http://UdoJava.com/
+ * http://about.me/udo.klimaschewski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package com.udojava.evalex;
+
+import java.math.RoundingMode;
+
+import com.udojava.evalex.Expression.ExpressionException;
+
+/**
+ * Primitive <code>double</code> implementations of the built-in operators and
+ * functions of {@link Expression}.<br>
+ * <br>
+ * Every method mirrors the behaviour of its {@link java.math.BigDecimal}
+ * counterpart, including the exceptions thrown for invalid arguments, but
+ * skips the rounding to the expression's {@link java.math.MathContext}.
+ */
+public final class DoubleMath {
+
+	private DoubleMath() {
+	}
+
+	/**
+	 * Makes sure a function result can be represented, like
+	 * <code>new BigDecimal(double)</code> does.
+	 *
+	 * @param d
+	 *            The function result.
+	 * @return The unchanged result.
+	 */
+	public static double finite(double d) {
+		if (Double.isNaN(d) || Double.isInfinite(d)) {
+			throw new NumberFormatException("Infinite or NaN");
+		}
+		return d;
+	}
+
+	private static void checkDivisor(double v1, double v2) {
+		if (v2 == 0) {
+			throw new ArithmeticException(v1 == 0 ? "Division undefined" : "Division by zero");
+		}
+	}
+
+	public static double divide(double v1, double v2) {
+		checkDivisor(v1, v2);
+		return v1 / v2;
+	}
+
+	public static double remainder(double v1, double v2) {
+		checkDivisor(v1, v2);
+		return v1 % v2;
+	}
+
+	public static double pow(double v1, double v2) {
+		if (v1 == 0 && v2 < 0) {
+			throw new ArithmeticException("Division by zero");
+		}
+		double result = Math.pow(v1, v2);
+		if (Double.isNaN(result)) {
+			throw new NumberFormatException("Infinite or NaN");
+		}
+		return result;
+	}
+
+	public static double and(double v1, double v2) {
+		return v1 != 0 && v2 != 0 ? 1 : 0;
+	}
+
+	public static double or(double v1, double v2) {
+		return v1 != 0 || v2 != 0 ? 1 : 0;
+	}
+
+	public static double greater(double v1, double v2) {
+		return v1 > v2 ? 1 : 0;
+	}
+
+	public static double greaterEqual(double v1, double v2) {
+		return v1 >= v2 ? 1 : 0;
+	}
+
+	public static double less(double v1, double v2) {
+		return v1 < v2 ? 1 : 0;
+	}
+
+	public static double lessEqual(double v1, double v2) {
+		return v1 <= v2 ? 1 : 0;
+	}
+
+	public static double equal(double v1, double v2) {
+		return v1 == v2 ? 1 : 0;
+	}
+
+	public static double notEqual(double v1, double v2) {
+		return v1 != v2 ? 1 : 0;
+	}
+
+	public static double not(double v) {
+		return v == 0 ? 1 : 0;
+	}
+
+	public static double random() {
+		return finite(Math.random());
+	}
+
+	public static double sin(double v) {
+		return finite(Math.sin(Math.toRadians(v)));
+	}
+
+	public static double cos(double v) {
+		return finite(Math.cos(Math.toRadians(v)));
+	}
+
+	public static double tan(double v) {
+		return finite(Math.tan(Math.toRadians(v)));
+	}
+
+	public static double asin(double v) {
+		return finite(Math.toDegrees(Math.asin(v)));
+	}
+
+	public static double acos(double v) {
+		return finite(Math.toDegrees(Math.acos(v)));
+	}
+
+	public static double atan(double v) {
+		return finite(Math.toDegrees(Math.atan(v)));
+	}
+
+	public static double atan2(double v1, double v2) {
+		return finite(Math.toDegrees(Math.atan2(v1, v2)));
+	}
+
+	public static double sinh(double v) {
+		return finite(Math.sinh(v));
+	}
+
+	public static double cosh(double v) {
+		return finite(Math.cosh(v));
+	}
+
+	public static double tanh(double v) {
+		return finite(Math.tanh(v));
+	}
+
+	public static double sec(double v) {
+		return finite(1 / Math.cos(Math.toRadians(v)));
+	}
+
+	public static double csc(double v) {
+		return finite(1 / Math.sin(Math.toRadians(v)));
+	}
+
+	public static double sech(double v) {
+		return finite(1 / Math.cosh(v));
+	}
+
+	public static double csch(double v) {
+		return finite(1 / Math.sinh(v));
+	}
+
+	public static double cot(double v) {
+		return finite(1 / Math.tan(Math.toRadians(v)));
+	}
+
+	public static double acot(double v) {
+		if (v == 0) {
+			throw new ExpressionException("Number must not be 0");
+		}
+		return finite(Math.toDegrees(Math.atan(1 / v)));
+	}
+
+	public static double coth(double v) {
+		return finite(1 / Math.tanh(v));
+	}
+
+	public static double asinh(double v) {
+		return finite(Math.log(v + (Math.sqrt(Math.pow(v, 2) + 1))));
+	}
+
+	public static double acosh(double v) {
+		if (Double.compare(v, 1) < 0) {
+			throw new ExpressionException("Number must be x >= 1");
+		}
+		return finite(Math.log(v + (Math.sqrt(Math.pow(v, 2) - 1))));
+	}
+
+	public static double atanh(double v) {
+		if (Math.abs(v) >= 1) {
+			throw new ExpressionException("Number must be |x| < 1");
+		}
+		return finite(0.5 * Math.log((1 + v) / (1 - v)));
+	}
+
+	public static double rad(double v) {
+		return finite(Math.toRadians(v));
+	}
+
+	public static double deg(double v) {
+		return finite(Math.toDegrees(v));
+	}
+
+	public static double log(double v) {
+		return finite(Math.log(v));
+	}
+
+	public static double log10(double v) {
+		return finite(Math.log10(v));
+	}
+
+	public static double sqrt(double v) {
+		if (v < 0) {
+			throw new ExpressionException("Argument to SQRT() function must not be negative");
+		}
+		return Math.sqrt(v);
+	}
+
+	/**
+	 * Rounds a value to a number of decimal places.
+	 *
+	 * @param v
+	 *            The value to round.
+	 * @param precision
+	 *            The number of decimal places, truncated to an integer.
+	 * @param roundingMode
+	 *            The {@link RoundingMode#ordinal()} to use, anything but
+	 *            {@link RoundingMode#UNNECESSARY}.
+	 * @return The rounded value.
+	 */
+	public static double round(double v, double precision, int roundingMode) {
+		double scale = Math.pow(10, (int) precision);
+		double scaled = Math.abs(v) * scale;
+		double sign = v < 0 ? -1 : 1;
+		double rounded;
+		switch (roundingMode) {
+		case 0: // UP
+			rounded = Math.ceil(scaled);
+			break;
+		case 1: // DOWN
+			rounded = Math.floor(scaled);
+			break;
+		case 2: // CEILING
+			rounded = v < 0 ? Math.floor(scaled) : Math.ceil(scaled);
+			break;
+		case 3: // FLOOR
+			rounded = v < 0 ? Math.ceil(scaled) : Math.floor(scaled);
+			break;
+		case 4: // HALF_UP
+			rounded = Math.floor(scaled + 0.5);
+			break;
+		case 5: // HALF_DOWN
+			rounded = Math.ceil(scaled - 0.5);
+			break;
+		case 6: // HALF_EVEN
+			rounded = Math.rint(scaled);
+			break;
+		default:
+			throw new ArithmeticException("Rounding necessary");
+		}
+		return sign * rounded / scale;
+	}
+}
@@ -0,0 +1,629 @@
+/*
+ * Copyright 2018 Udo Klimaschewski
+ * 
+ * http://UdoJava.com/
+ * http://about.me/udo.klimaschewski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package com.udojava.evalex;
+
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Stack;
+
+import com.udojava.evalex.Expression.Token;
+
+/**
+ * The RPN of an {@link Expression} compiled into a flat program over
+ * <code>double</code> values.<br>
+ * <br>
+ * The program is a sequence of opcodes, some followed by one operand, for a
+ * simple stack machine. Variables are resolved to slots once at compile time
+ * and the lazily evaluated <code>IF</code> function is translated into
+ * conditional jumps, so only the selected branch is executed.
+ */
+final class DoubleProgram {
+
+	static final int CONST = 0;
+	static final int LOAD = 1;
+	static final int JUMP = 2;
+	static final int JUMP_IF_ZERO = 3;
+	static final int ADD = 4;
+	static final int SUBTRACT = 5;
+	static final int MULTIPLY = 6;
+	static final int DIVIDE = 7;
+	static final int REMAINDER = 8;
+	static final int POW = 9;
+	static final int AND = 10;
+	static final int OR = 11;
+	static final int GREATER = 12;
+	static final int GREATER_EQUAL = 13;
+	static final int LESS = 14;
+	static final int LESS_EQUAL = 15;
+	static final int EQUAL = 16;
+	static final int NOT_EQUAL = 17;
+	static final int NEGATE = 18;
+	static final int NOT = 19;
+	static final int RANDOM = 20;
+	static final int SIN = 21;
+	static final int COS = 22;
+	static final int TAN = 23;
+	static final int ASIN = 24;
+	static final int ACOS = 25;
+	static final int ATAN = 26;
+	static final int ATAN2 = 27;
+	static final int SINH = 28;
+	static final int COSH = 29;
+	static final int TANH = 30;
+	static final int SEC = 31;
+	static final int CSC = 32;
+	static final int SECH = 33;
+	static final int CSCH = 34;
+	static final int COT = 35;
+	static final int ACOT = 36;
+	static final int COTH = 37;
+	static final int ASINH = 38;
+	static final int ACOSH = 39;
+	static final int ATANH = 40;
+	static final int RAD = 41;
+	static final int DEG = 42;
+	static final int MAX = 43;
+	static final int MIN = 44;
+	static final int ABS = 45;
+	static final int LOG = 46;
+	static final int LOG10 = 47;
+	static final int ROUND = 48;
+	static final int FLOOR = 49;
+	static final int CEILING = 50;
+	static final int SQRT = 51;
+
+	/**
+	 * Pseudo opcode for the <code>IF</code> function, only used while
+	 * building the tree.
+	 */
+	private static final int IF = -1;
+
+	/**
+	 * Binary operators in the order of their opcodes, starting at
+	 * {@link #ADD}.
+	 */
+	private static final String[] OPERATORS = { "+", "-", "*", "/", "%", "^", "&&", "||", ">", ">=", "<", "<=", "=",
+			"!=" };
+
+	/**
+	 * Functions in the order of their opcodes, starting at {@link #NOT}.
+	 */
+	static final String[] FUNCTIONS = { "NOT", "RANDOM", "SIN", "COS", "TAN", "ASIN", "ACOS", "ATAN", "ATAN2",
+			"SINH", "COSH", "TANH", "SEC", "CSC", "SECH", "CSCH", "COT", "ACOT", "COTH", "ASINH", "ACOSH", "ATANH", "RAD",
+			"DEG", "MAX", "MIN", "ABS", "LOG", "LOG10", "ROUND", "FLOOR", "CEILING", "SQRT" };
+
+	/**
+	 * The opcodes and their operands.
+	 */
+	final int[] code;
+
+	/**
+	 * The constant pool referenced by {@link #CONST}.
+	 */
+	final double[] constants;
+
+	/**
+	 * The variable names, indexed by slot.
+	 */
+	final String[] variables;
+
+	/**
+	 * The maximum depth of the operand stack.
+	 */
+	final int maxStack;
+
+	/**
+	 * The {@link RoundingMode#ordinal()} used by {@link #ROUND}.
+	 */
+	final int roundingMode;
+
+	/**
+	 * A node of the expression tree rebuilt from the RPN.
+	 */
+	static final class Node {
+		final int op;
+		final double value;
+		final int slot;
+		final Node[] args;
+
+		Node(int op, double value, int slot, Node[] args) {
+			this.op = op;
+			this.value = value;
+			this.slot = slot;
+			this.args = args;
+		}
+	}
+
+	private DoubleProgram(int[] code, double[] constants, String[] variables, int maxStack, int roundingMode) {
+		this.code = code;
+		this.constants = constants;
+		this.variables = variables;
+		this.maxStack = maxStack;
+		this.roundingMode = roundingMode;
+	}
+
+	/**
+	 * Compiles an expression.
+	 *
+	 * @param expression
+	 *            The expression to compile.
+	 * @return The compiled program, or <code>null</code> if the expression
+	 *         uses anything that has no <code>double</code> representation.
+	 */
+	static DoubleProgram compile(Expression expression) {
+		return compile(expression, new String[0]);
+	}
+
+	/**
+	 * Compiles an expression with some variables bound to the first slots.
+	 *
+	 * @param expression
+	 *            The expression to compile.
+	 * @param bound
+	 *            The variables to put into slots <code>0</code> to
+	 *            <code>bound.length - 1</code>, in that order. They need not
+	 *            be declared in the expression.
+	 * @return The compiled program, or <code>null</code> if the expression
+	 *         uses anything that has no <code>double</code> representation.
+	 */
+	static DoubleProgram compile(Expression expression, String[] bound) {
+		List<String> variables = new ArrayList<String>(Arrays.asList(bound));
+		Node root = buildTree(expression, variables);
+		if (root == null) {
+			return null;
+		}
+		Emitter emitter = new Emitter();
+		emitter.emit(root);
+		return new DoubleProgram(emitter.code(), emitter.constants(), variables.toArray(new String[variables.size()]),
+				emitter.maxStack, expression.getMathContext().getRoundingMode().ordinal());
+	}
+
+	/**
+	 * Rebuilds the expression tree from the RPN of an expression.
+	 *
+	 * @param expression
+	 *            The expression.
+	 * @param variables
+	 *            Receives the names of the used variables, in slot order.
+	 *            Names it already holds are bound variables and keep their
+	 *            slots.
+	 * @return The root node, or <code>null</code> if the expression can not be
+	 *         compiled.
+	 */
+	static Node buildTree(Expression expression, List<String> variables) {
+		int bound = variables.size();
+		if (expression.getMathContext().getRoundingMode() == RoundingMode.UNNECESSARY) {
+			return null;
+		}
+		Stack<Node> stack = new Stack<Node>();
+		Node paramsStart = new Node(CONST, 0, -1, null);
+
+		for (Token token : expression.getRPN()) {
+			switch (token.type) {
+			case LITERAL:
+				stack.push(new Node(CONST, Double.parseDouble(token.surface), -1, null));
+				break;
+			case HEX_LITERAL:
+				stack.push(new Node(CONST, new BigInteger(token.surface.substring(2), 16).doubleValue(), -1, null));
+				break;
+			case VARIABLE: {
+				int slot = indexOfIgnoreCase(variables, token.surface);
+				if (slot < 0 || slot >= bound) {
+					if (!expression.hasVariable(token.surface)) {
+						throw new Expression.ExpressionException("Unknown operator or function: " + token);
+					}
+					Expression.LazyNumber value = expression.getVariable(token.surface);
+					if (value == null || !Expression.isNumberString(value.getString())) {
+						return null;
+					}
+				}
+				if (slot < 0) {
+					slot = variables.size();
+					variables.add(token.surface);
+				}
+				stack.push(new Node(LOAD, 0, slot, null));
+				break;
+			}
+			case OPERATOR: {
+				String surface = token.surface.equals("==") ? "=" : token.surface.equals("<>") ? "!=" : token.surface;
+				int index = indexOf(OPERATORS, surface);
+				if (index < 0 || !expression.isBuiltIn(token.surface)) {
+					return null;
+				}
+				Node v2 = stack.pop();
+				Node v1 = stack.pop();
+				stack.push(new Node(ADD + index, 0, -1, new Node[] { v1, v2 }));
+				break;
+			}
+			case UNARY_OPERATOR: {
+				if (!expression.isBuiltIn(token.surface)) {
+					return null;
+				}
+				Node v1 = stack.pop();
+				if (token.surface.equals("-u")) {
+					stack.push(new Node(NEGATE, 0, -1, new Node[] { v1 }));
+				} else if (token.surface.equals("+u")) {
+					stack.push(v1);
+				} else {
+					return null;
+				}
+				break;
+			}
+			case FUNCTION: {
+				String name = token.surface.toUpperCase(Locale.ROOT);
+				if (!expression.isBuiltIn(name)) {
+					return null;
+				}
+				List<Node> params = new ArrayList<Node>();
+				while (!stack.isEmpty() && stack.peek() != paramsStart) {
+					params.add(0, stack.pop());
+				}
+				if (!stack.isEmpty()) {
+					stack.pop();
+				}
+				int op;
+				if (name.equals("IF")) {
+					op = IF;
+				} else {
+					int index = indexOf(FUNCTIONS, name);
+					if (index < 0) {
+						return null;
+					}
+					op = NOT + index;
+				}
+				if ((op == MAX || op == MIN) && params.isEmpty()) {
+					return null;
+				}
+				stack.push(new Node(op, 0, -1, params.toArray(new Node[params.size()])));
+				break;
+			}
+			case OPEN_PAREN:
+				stack.push(paramsStart);
+				break;
+			default:
+				return null;
+			}
+		}
+		return stack.pop();
+	}
+
+	private static int indexOf(String[] names, String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	static int indexOfIgnoreCase(List<String> names, String name) {
+		for (int i = 0; i < names.size(); i++) {
+			if (names.get(i).equalsIgnoreCase(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Translates an expression tree into opcodes.
+	 */
+	private static final class Emitter {
+		private int[] code = new int[16];
+		private int size;
+		private final List<Double> constants = new ArrayList<Double>();
+		private int stack;
+		private int maxStack;
+
+		void emit(Node node) {
+			switch (node.op) {
+			case CONST:
+				add(CONST);
+				add(constants.size());
+				constants.add(node.value);
+				push(1);
+				break;
+			case LOAD:
+				add(LOAD);
+				add(node.slot);
+				push(1);
+				break;
+			case IF: {
+				emit(node.args[0]);
+				add(JUMP_IF_ZERO);
+				int elseJump = size;
+				add(0);
+				push(-1);
+				emit(node.args[1]);
+				add(JUMP);
+				int endJump = size;
+				add(0);
+				push(-1);
+				code[elseJump] = size;
+				emit(node.args[2]);
+				code[endJump] = size;
+				break;
+			}
+			case MAX:
+			case MIN:
+				for (Node arg : node.args) {
+					emit(arg);
+				}
+				add(node.op);
+				add(node.args.length);
+				push(1 - node.args.length);
+				break;
+			default:
+				for (Node arg : node.args) {
+					emit(arg);
+				}
+				add(node.op);
+				push(1 - node.args.length);
+			}
+		}
+
+		private void push(int count) {
+			stack += count;
+			maxStack = Math.max(maxStack, stack);
+		}
+
+		private void add(int value) {
+			if (size == code.length) {
+				int[] newCode = new int[size * 2];
+				System.arraycopy(code, 0, newCode, 0, size);
+				code = newCode;
+			}
+			code[size++] = value;
+		}
+
+		int[] code() {
+			int[] result = new int[size];
+			System.arraycopy(code, 0, result, 0, size);
+			return result;
+		}
+
+		double[] constants() {
+			double[] result = new double[constants.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = constants.get(i);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Runs the program.
+	 *
+	 * @param slots
+	 *            The variable values, indexed by slot.
+	 * @param stack
+	 *            The operand stack, at least {@link #maxStack} long.
+	 * @return The result of the expression.
+	 */
+	double run(double[] slots, double[] stack) {
+		final int[] code = this.code;
+		int sp = 0;
+		int pc = 0;
+		while (pc < code.length) {
+			switch (code[pc++]) {
+			case CONST:
+				stack[sp++] = constants[code[pc++]];
+				break;
+			case LOAD:
+				stack[sp++] = slots[code[pc++]];
+				break;
+			case JUMP:
+				pc = code[pc];
+				break;
+			case JUMP_IF_ZERO:
+				pc = stack[--sp] == 0 ? code[pc] : pc + 1;
+				break;
+			case ADD:
+				sp--;
+				stack[sp - 1] += stack[sp];
+				break;
+			case SUBTRACT:
+				sp--;
+				stack[sp - 1] -= stack[sp];
+				break;
+			case MULTIPLY:
+				sp--;
+				stack[sp - 1] *= stack[sp];
+				break;
+			case DIVIDE:
+				sp--;
+				stack[sp - 1] = DoubleMath.divide(stack[sp - 1], stack[sp]);
+				break;
+			case REMAINDER:
+				sp--;
+				stack[sp - 1] = DoubleMath.remainder(stack[sp - 1], stack[sp]);
+				break;
+			case POW:
+				sp--;
+				stack[sp - 1] = DoubleMath.pow(stack[sp - 1], stack[sp]);
+				break;
+			case AND:
+				sp--;
+				stack[sp - 1] = DoubleMath.and(stack[sp - 1], stack[sp]);
+				break;
+			case OR:
+				sp--;
+				stack[sp - 1] = DoubleMath.or(stack[sp - 1], stack[sp]);
+				break;
+			case GREATER:
+				sp--;
+				stack[sp - 1] = DoubleMath.greater(stack[sp - 1], stack[sp]);
+				break;
+			case GREATER_EQUAL:
+				sp--;
+				stack[sp - 1] = DoubleMath.greaterEqual(stack[sp - 1], stack[sp]);
+				break;
+			case LESS:
+				sp--;
+				stack[sp - 1] = DoubleMath.less(stack[sp - 1], stack[sp]);
+				break;
+			case LESS_EQUAL:
+				sp--;
+				stack[sp - 1] = DoubleMath.lessEqual(stack[sp - 1], stack[sp]);
+				break;
+			case EQUAL:
+				sp--;
+				stack[sp - 1] = DoubleMath.equal(stack[sp - 1], stack[sp]);
+				break;
+			case NOT_EQUAL:
+				sp--;
+				stack[sp - 1] = DoubleMath.notEqual(stack[sp - 1], stack[sp]);
+				break;
+			case NEGATE:
+				stack[sp - 1] = -stack[sp - 1];
+				break;
+			case NOT:
+				stack[sp - 1] = DoubleMath.not(stack[sp - 1]);
+				break;
+			case RANDOM:
+				stack[sp++] = DoubleMath.random();
+				break;
+			case SIN:
+				stack[sp - 1] = DoubleMath.sin(stack[sp - 1]);
+				break;
+			case COS:
+				stack[sp - 1] = DoubleMath.cos(stack[sp - 1]);
+				break;
+			case TAN:
+				stack[sp - 1] = DoubleMath.tan(stack[sp - 1]);
+				break;
+			case ASIN:
+				stack[sp - 1] = DoubleMath.asin(stack[sp - 1]);
+				break;
+			case ACOS:
+				stack[sp - 1] = DoubleMath.acos(stack[sp - 1]);
+				break;
+			case ATAN:
+				stack[sp - 1] = DoubleMath.atan(stack[sp - 1]);
+				break;
+			case ATAN2:
+				sp--;
+				stack[sp - 1] = DoubleMath.atan2(stack[sp - 1], stack[sp]);
+				break;
+			case SINH:
+				stack[sp - 1] = DoubleMath.sinh(stack[sp - 1]);
+				break;
+			case COSH:
+				stack[sp - 1] = DoubleMath.cosh(stack[sp - 1]);
+				break;
+			case TANH:
+				stack[sp - 1] = DoubleMath.tanh(stack[sp - 1]);
+				break;
+			case SEC:
+				stack[sp - 1] = DoubleMath.sec(stack[sp - 1]);
+				break;
+			case CSC:
+				stack[sp - 1] = DoubleMath.csc(stack[sp - 1]);
+				break;
+			case SECH:
+				stack[sp - 1] = DoubleMath.sech(stack[sp - 1]);
+				break;
+			case CSCH:
+				stack[sp - 1] = DoubleMath.csch(stack[sp - 1]);
+				break;
+			case COT:
+				stack[sp - 1] = DoubleMath.cot(stack[sp - 1]);
+				break;
+			case ACOT:
+				stack[sp - 1] = DoubleMath.acot(stack[sp - 1]);
+				break;
+			case COTH:
+				stack[sp - 1] = DoubleMath.coth(stack[sp - 1]);
+				break;
+			case ASINH:
+				stack[sp - 1] = DoubleMath.asinh(stack[sp - 1]);
+				break;
+			case ACOSH:
+				stack[sp - 1] = DoubleMath.acosh(stack[sp - 1]);
+				break;
+			case ATANH:
+				stack[sp - 1] = DoubleMath.atanh(stack[sp - 1]);
+				break;
+			case RAD:
+				stack[sp - 1] = DoubleMath.rad(stack[sp - 1]);
+				break;
+			case DEG:
+				stack[sp - 1] = DoubleMath.deg(stack[sp - 1]);
+				break;
+			case MAX: {
+				int count = code[pc++];
+				sp -= count;
+				double max = stack[sp];
+				for (int i = 1; i < count; i++) {
+					max = Math.max(max, stack[sp + i]);
+				}
+				stack[sp++] = max;
+				break;
+			}
+			case MIN: {
+				int count = code[pc++];
+				sp -= count;
+				double min = stack[sp];
+				for (int i = 1; i < count; i++) {
+					min = Math.min(min, stack[sp + i]);
+				}
+				stack[sp++] = min;
+				break;
+			}
+			case ABS:
+				stack[sp - 1] = Math.abs(stack[sp - 1]);
+				break;
+			case LOG:
+				stack[sp - 1] = DoubleMath.log(stack[sp - 1]);
+				break;
+			case LOG10:
+				stack[sp - 1] = DoubleMath.log10(stack[sp - 1]);
+				break;
+			case ROUND:
+				sp--;
+				stack[sp - 1] = DoubleMath.round(stack[sp - 1], stack[sp], roundingMode);
+				break;
+			case FLOOR:
+				stack[sp - 1] = Math.floor(stack[sp - 1]);
+				break;
+			case CEILING:
+				stack[sp - 1] = Math.ceil(stack[sp - 1]);
+				break;
+			case SQRT:
+				stack[sp - 1] = DoubleMath.sqrt(stack[sp - 1]);
+				break;
+			default:
+				throw new Expression.ExpressionException("Unknown opcode " + code[pc - 1]);
+			}
+		}
+		return stack[0];
+	}
+}
@@ -39,6 +39,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * <h1>EvalEx - Java Expression Evaluator</h1>
@@ -152,22 +153,73 @@ public class Expression {
 	private List<Token> rpn = null;
 
 	/**
-	 * All defined operators with name and implementation.
+	 * All defined operators with name and implementation. Until an operator or
+	 * function is added, this is the read-only map of the shared registry.
 	 */
-	private Map<String, com.udojava.evalex.Operator> operators = new TreeMap<String, com.udojava.evalex.Operator>(
-			String.CASE_INSENSITIVE_ORDER);
+	private Map<String, com.udojava.evalex.Operator> operators;
 
 	/**
-	 * All defined functions with name and implementation.
+	 * All defined functions with name and implementation. Until an operator or
+	 * function is added, this is the read-only map of the shared registry.
 	 */
-	private Map<String, com.udojava.evalex.LazyFunction> functions = new TreeMap<String, com.udojava.evalex.LazyFunction>(
-			String.CASE_INSENSITIVE_ORDER);
+	private Map<String, com.udojava.evalex.LazyFunction> functions;
+
+	/**
+	 * Whether {@link #operators} and {@link #functions} are copies owned by
+	 * this expression instead of the maps of the shared registry.
+	 */
+	private boolean ownsRegistry = false;
+
+	/**
+	 * The shared registries of built-in operators and functions for the
+	 * standard math contexts, as the built-ins calculate with the math context
+	 * of the registry they belong to. They are created together on first use,
+	 * and class initialization publishes them safely to every thread.
+	 */
+	private static final class StandardRegistries {
+		static final Expression DECIMAL32 = new Expression(MathContext.DECIMAL32);
+		static final Expression DECIMAL64 = new Expression(MathContext.DECIMAL64);
+		static final Expression DECIMAL128 = new Expression(MathContext.DECIMAL128);
+		static final Expression UNLIMITED = new Expression(MathContext.UNLIMITED);
+	}
 
 	/**
 	 * All defined variables with name and value.
 	 */
 	private Map<String, LazyNumber> variables = new TreeMap<String, LazyNumber>(String.CASE_INSENSITIVE_ORDER);
 
+	/**
+	 * Whether the constructor has finished registering the built-in operators
+	 * and functions.
+	 */
+	private boolean builtInsRegistered = false;
+
+	/**
+	 * Names of operators and functions that were added or replaced after the
+	 * built-in ones have been registered, <code>null</code> if there are none.
+	 */
+	private Set<String> customNames = null;
+
+	/**
+	 * Names of the variables bound to slots by
+	 * {@link #bindVariables(String...)}, indexed by slot, <code>null</code> if
+	 * there are none.
+	 */
+	private String[] boundVariables = null;
+
+	/**
+	 * The slot values of the evaluation running in
+	 * {@link #eval(BigDecimal[])}, <code>null</code> otherwise.
+	 */
+	private BigDecimal[] slotValues = null;
+
+	/**
+	 * One number per slot reading the value of the running
+	 * {@link #eval(BigDecimal[])}, created by
+	 * {@link #bindVariables(String...)}.
+	 */
+	private LazyNumber[] slotNumbers = null;
+
 	/**
 	 * What character to use for decimal separators.
 	 */
@@ -330,6 +382,12 @@ public class Expression {
 		public TokenType type;
 		public int pos;
 
+		/**
+		 * The slot of a variable bound by {@link Expression#bindVariables(String...)},
+		 * <code>-1</code> if the token is not a bound variable.
+		 */
+		int slot = -1;
+
 		public void append(char c) {
 			surface += c;
 		}
@@ -540,6 +598,32 @@ public class Expression {
 		this.mc = defaultMathContext;
 		this.expression = expression;
 		this.originalExpression = expression;
+		Expression registry = getRegistry(defaultMathContext);
+		operators = registry.operators;
+		functions = registry.functions;
+
+		variables.put("e", CreateLazyNumber(e));
+		variables.put("PI", CreateLazyNumber(PI));
+		variables.put("NULL", null);
+		variables.put("TRUE", CreateLazyNumber(BigDecimal.ONE));
+		variables.put("FALSE", CreateLazyNumber(BigDecimal.ZERO));
+
+		builtInsRegistered = true;
+	}
+
+	/**
+	 * Creates the registry of the built-in operators and functions for a math
+	 * context.
+	 * 
+	 * @param mathContext
+	 *            The {@link MathContext} the built-ins calculate with.
+	 */
+	private Expression(MathContext mathContext) {
+		this.mc = mathContext;
+		this.originalExpression = null;
+		operators = new TreeMap<String, com.udojava.evalex.Operator>(String.CASE_INSENSITIVE_ORDER);
+		functions = new TreeMap<String, com.udojava.evalex.LazyFunction>(String.CASE_INSENSITIVE_ORDER);
+		ownsRegistry = true;
 		addOperator(new Operator("+", OPERATOR_PRECEDENCE_ADDITIVE, true) {
 			@Override
 			public BigDecimal eval(BigDecimal v1, BigDecimal v2) {
@@ -1041,12 +1125,81 @@ public class Expression {
 			}
 		});
 
-		variables.put("e", CreateLazyNumber(e));
-		variables.put("PI", CreateLazyNumber(PI));
-		variables.put("NULL", null);
-		variables.put("TRUE", CreateLazyNumber(BigDecimal.ONE));
-		variables.put("FALSE", CreateLazyNumber(BigDecimal.ZERO));
+		operators = Collections.unmodifiableMap(operators);
+		functions = Collections.unmodifiableMap(functions);
+		ownsRegistry = false;
+	}
 
+	/**
+	 * Returns the shared registry of built-in operators and functions for a
+	 * standard math context, or a new registry for this expression alone for
+	 * any other math context.
+	 * 
+	 * @param mathContext
+	 *            The {@link MathContext} of the registry.
+	 * @return The expression holding the read-only registry maps.
+	 */
+	private static Expression getRegistry(MathContext mathContext) {
+		if (mathContext.equals(MathContext.DECIMAL32)) {
+			return StandardRegistries.DECIMAL32;
+		}
+		if (mathContext.equals(MathContext.DECIMAL64)) {
+			return StandardRegistries.DECIMAL64;
+		}
+		if (mathContext.equals(MathContext.DECIMAL128)) {
+			return StandardRegistries.DECIMAL128;
+		}
+		if (mathContext.equals(MathContext.UNLIMITED)) {
+			return StandardRegistries.UNLIMITED;
+		}
+		return new Expression(mathContext);
+	}
+
+	/**
+	 * Replaces the shared registry maps by copies owned by this expression, so
+	 * operators and functions can be added without affecting other
+	 * expressions.
+	 */
+	private void copyRegistry() {
+		if (ownsRegistry) {
+			return;
+		}
+		Map<String, com.udojava.evalex.Operator> ownOperators = new TreeMap<String, com.udojava.evalex.Operator>(
+				String.CASE_INSENSITIVE_ORDER);
+		ownOperators.putAll(operators);
+		Map<String, com.udojava.evalex.LazyFunction> ownFunctions = new TreeMap<String, com.udojava.evalex.LazyFunction>(
+				String.CASE_INSENSITIVE_ORDER);
+		ownFunctions.putAll(functions);
+		operators = ownOperators;
+		functions = ownFunctions;
+		ownsRegistry = true;
+	}
+
+	/**
+	 * Switches the built-in operators and functions to the registry of the
+	 * current math context, keeping the ones added by the user.
+	 */
+	private void rebindRegistry() {
+		Expression registry = getRegistry(mc);
+		Map<String, com.udojava.evalex.Operator> oldOperators = operators;
+		Map<String, com.udojava.evalex.LazyFunction> oldFunctions = functions;
+		operators = registry.operators;
+		functions = registry.functions;
+		if (!ownsRegistry) {
+			return;
+		}
+		ownsRegistry = false;
+		copyRegistry();
+		if (customNames != null) {
+			for (String name : customNames) {
+				if (oldOperators.containsKey(name)) {
+					operators.put(name, oldOperators.get(name));
+				}
+				if (oldFunctions.containsKey(name)) {
+					functions.put(name, oldFunctions.get(name));
+				}
+			}
+		}
 	}
 
 	private void assertNotNull(BigDecimal v1) {
@@ -1071,7 +1224,7 @@ public class Expression {
 	 *            The string.
 	 * @return <code>true</code>, if the input string is a number.
 	 */
-	private boolean isNumber(String st) {
+	private static boolean isNumber(String st) {
 		if (st.charAt(0) == minusSign && st.length() == 1)
 			return false;
 		if (st.charAt(0) == '+' && st.length() == 1)
@@ -1285,6 +1438,10 @@ public class Expression {
 				stack.push(result);
 				break;
 			case VARIABLE:
+				if (token.slot >= 0 && slotValues != null) {
+					stack.push(slotNumbers[token.slot]);
+					break;
+				}
 				if (!variables.containsKey(token.surface)) {
 					throw new ExpressionException("Unknown operator or function: " + token);
 				}
@@ -1366,6 +1523,90 @@ public class Expression {
 		return result == null ? null : stripTrailingZeros ? result.stripTrailingZeros() : result;
 	}
 
+	/**
+	 * Evaluates the expression with the values of the variables bound by
+	 * {@link #bindVariables(String...)} taken from an array indexed by slot.
+	 * Unlike {@link #setVariable(String, BigDecimal)}, this neither looks the
+	 * variables up by name nor wraps the values. Operators and functions
+	 * still allocate their intermediate results; only
+	 * {@link DoubleEvaluator#eval(double[])} evaluates without allocating.
+	 * 
+	 * @param values
+	 *            The variable values, indexed by slot.
+	 * @return The result of the expression. Trailing zeros are stripped.
+	 */
+	public BigDecimal eval(BigDecimal[] values) {
+		slotValues = values;
+		try {
+			return eval(true);
+		} finally {
+			slotValues = null;
+		}
+	}
+
+	/**
+	 * Binds variable names to slots, numbered from <code>0</code> in the
+	 * given order, for {@link #eval(BigDecimal[])} and
+	 * {@link #toDoubleEvaluator(String...)}. The names are resolved once for
+	 * every variable in the expression; bound variables do not need to be
+	 * declared with {@link #setVariable(String, BigDecimal)}.
+	 * 
+	 * @param variables
+	 *            The variable names, in slot order.
+	 * @return The expression, allows to chain methods.
+	 */
+	public Expression bindVariables(String... variables) {
+		this.boundVariables = variables.clone();
+		slotNumbers = new LazyNumber[variables.length];
+		for (int i = 0; i < variables.length; i++) {
+			final int slot = i;
+			slotNumbers[i] = new LazyNumber() {
+				public BigDecimal eval() {
+					BigDecimal value = slotValues[slot];
+					return value == null ? null : value.round(mc);
+				}
+
+				public String getString() {
+					return boundVariables[slot];
+				}
+			};
+		}
+		if (rpn != null) {
+			assignSlots(rpn);
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the variables bound to slots.
+	 * 
+	 * @return The names indexed by slot, an empty array if none are bound.
+	 */
+	String[] getBoundVariables() {
+		return boundVariables == null ? new String[0] : boundVariables;
+	}
+
+	/**
+	 * Stores the slot of every bound variable in its tokens.
+	 * 
+	 * @param tokens
+	 *            The RPN of the expression.
+	 */
+	private void assignSlots(List<Token> tokens) {
+		for (Token token : tokens) {
+			if (token.type != TokenType.VARIABLE) {
+				continue;
+			}
+			token.slot = -1;
+			for (int i = 0; boundVariables != null && i < boundVariables.length; i++) {
+				if (boundVariables[i].equalsIgnoreCase(token.surface)) {
+					token.slot = i;
+					break;
+				}
+			}
+		}
+	}
+
 	/**
 	 * Sets the precision for expression evaluation.
 	 * 
@@ -1376,6 +1617,7 @@ public class Expression {
 	 */
 	public Expression setPrecision(int precision) {
 		this.mc = new MathContext(precision);
+		rebindRegistry();
 		return this;
 	}
 
@@ -1388,6 +1630,7 @@ public class Expression {
 	 */
 	public Expression setRoundingMode(RoundingMode roundingMode) {
 		this.mc = new MathContext(mc.getPrecision(), roundingMode);
+		rebindRegistry();
 		return this;
 	}
 
@@ -1430,6 +1673,8 @@ public class Expression {
 		if (operator instanceof UnaryOperator) {
 			key += "u";
 		}
+		markCustom(key);
+		copyRegistry();
 		return operators.put(key, operator);
 	}
 
@@ -1442,6 +1687,8 @@ public class Expression {
 	 *         there was none.
 	 */
 	public com.udojava.evalex.Function addFunction(com.udojava.evalex.Function function) {
+		markCustom(function.getName());
+		copyRegistry();
 		return (com.udojava.evalex.Function) functions.put(function.getName(), function);
 	}
 
@@ -1454,9 +1701,45 @@ public class Expression {
 	 *         there was none.
 	 */
 	public com.udojava.evalex.LazyFunction addLazyFunction(com.udojava.evalex.LazyFunction function) {
+		markCustom(function.getName());
+		copyRegistry();
 		return functions.put(function.getName(), function);
 	}
 
+	/**
+	 * Remembers that an operator or function was added or replaced by the
+	 * user after the built-in ones have been registered.
+	 *
+	 * @param name
+	 *            The operator key or function name.
+	 */
+	private void markCustom(String name) {
+		if (!builtInsRegistered) {
+			return;
+		}
+		if (customNames == null) {
+			customNames = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+		}
+		customNames.add(name);
+	}
+
+	/**
+	 * Checks whether an operator or function is still the built-in
+	 * implementation registered by the constructor.
+	 *
+	 * @param name
+	 *            The operator key (with a trailing <code>u</code> for unary
+	 *            operators) or function name.
+	 * @return <code>true</code> if the name is defined and was not added or
+	 *         replaced by the user.
+	 */
+	boolean isBuiltIn(String name) {
+		if (customNames != null && customNames.contains(name)) {
+			return false;
+		}
+		return operators.containsKey(name) || functions.containsKey(name);
+	}
+
 	/**
 	 * Sets a variable value.
 	 * 
@@ -1471,6 +1754,24 @@ public class Expression {
 		return this;
 	}
 
+	/**
+	 * Sets a variable value that is resolved lazily on every evaluation.<br>
+	 * <br>
+	 * The given {@link LazyNumber} is kept as is, so a caller can bind a
+	 * mutable number once and change its value between evaluations without
+	 * touching the variable map again.
+	 *
+	 * @param variable
+	 *            The variable name.
+	 * @param value
+	 *            The lazily evaluated variable value.
+	 * @return The expression, allows to chain methods.
+	 */
+	public Expression setVariable(String variable, LazyNumber value) {
+		variables.put(variable, value);
+		return this;
+	}
+
 	/**
 	 * Sets a variable value.
 	 * 
@@ -1489,8 +1790,6 @@ public class Expression {
 			final String expStr = value;
 			variables.put(variable, new LazyNumber() {
 				private final Map<String, LazyNumber> outerVariables = variables;
-				private final Map<String, com.udojava.evalex.LazyFunction> outerFunctions = functions;
-				private final Map<String, com.udojava.evalex.Operator> outerOperators = operators;
 				private final String innerExpressionString = expStr;
 				private final MathContext inneMc = mc;
 
@@ -1503,8 +1802,8 @@ public class Expression {
 				public BigDecimal eval() {
 					Expression innerE = new Expression(innerExpressionString, inneMc);
 					innerE.variables = outerVariables;
-					innerE.functions = outerFunctions;
-					innerE.operators = outerOperators;
+					innerE.functions = functions;
+					innerE.operators = operators;
 					BigDecimal val = innerE.eval();
 					return val;
 				}
@@ -1546,6 +1845,19 @@ public class Expression {
 		return setVariable(variable, value);
 	}
 
+	/**
+	 * Sets a variable value that is resolved lazily on every evaluation.
+	 *
+	 * @param variable
+	 *            The variable to set.
+	 * @param value
+	 *            The lazily evaluated variable value.
+	 * @return The expression, allows to chain methods.
+	 */
+	public Expression with(String variable, LazyNumber value) {
+		return setVariable(variable, value);
+	}
+
 	/**
 	 * Sets a variable value.
 	 * 
@@ -1604,10 +1916,13 @@ public class Expression {
 	 * 
 	 * @return The cached RPN instance.
 	 */
-	private List<Token> getRPN() {
+	List<Token> getRPN() {
 		if (rpn == null) {
 			rpn = shuntingYard(this.expression);
 			validate(rpn);
+			if (boundVariables != null) {
+				assignSlots(rpn);
+			}
 		}
 		return rpn;
 	}
@@ -1708,6 +2023,85 @@ public class Expression {
 		return result.toString();
 	}
 
+	/**
+	 * Creates an evaluator that runs this expression over primitive
+	 * <code>double</code> values.<br>
+	 * <br>
+	 * The cached RPN is compiled once into a flat program that is executed on
+	 * a preallocated <code>double[]</code> operand stack, so evaluating it
+	 * does not allocate. The built-in operators and functions are supported
+	 * with the same semantics as their {@link BigDecimal} counterparts, but
+	 * without the rounding of the {@link MathContext}.<br>
+	 * <br>
+	 * Expressions that can not be represented this way (user defined or
+	 * replaced operators and functions, string parameters, <code>NULL</code>
+	 * values or variables holding nested expressions) get an evaluator that
+	 * falls back to {@link #eval()}, see {@link DoubleEvaluator#isFallback()}.
+	 * Use {@link #eval()} directly when exact arithmetic is required.
+	 *
+	 * @return A new evaluator for this expression.
+	 */
+	public DoubleEvaluator toDoubleEvaluator() {
+		return new DoubleEvaluator(this);
+	}
+
+	/**
+	 * Binds variable names to slots with {@link #bindVariables(String...)}
+	 * and creates an evaluator that takes their values from an array indexed
+	 * by slot, see {@link DoubleEvaluator#eval(double[])}.
+	 * 
+	 * @param variables
+	 *            The variable names, in slot order.
+	 * @return A new evaluator for this expression.
+	 */
+	public DoubleEvaluator toDoubleEvaluator(String... variables) {
+		bindVariables(variables);
+		return new DoubleEvaluator(this);
+	}
+
+	/**
+	 * Gets the current {@link MathContext} of this expression.
+	 *
+	 * @return The math context used for calculations.
+	 */
+	MathContext getMathContext() {
+		return mc;
+	}
+
+	/**
+	 * Gets whether a variable is declared in this expression.
+	 *
+	 * @param variable
+	 *            The variable name.
+	 * @return <code>true</code> if the variable is declared.
+	 */
+	boolean hasVariable(String variable) {
+		return variables.containsKey(variable);
+	}
+
+	/**
+	 * Gets the current value of a declared variable.
+	 *
+	 * @param variable
+	 *            The variable name.
+	 * @return The lazy value of the variable, <code>null</code> for
+	 *         <code>NULL</code> or undeclared variables.
+	 */
+	LazyNumber getVariable(String variable) {
+		return variables.get(variable);
+	}
+
+	/**
+	 * Checks whether a string is a plain number literal.
+	 *
+	 * @param st
+	 *            The string.
+	 * @return <code>true</code>, if the input string is a number.
+	 */
+	static boolean isNumberString(String st) {
+		return st != null && st.length() > 0 && isNumber(st);
+	}
+
 	/**
 	 * Exposing declared variables in the expression.
 	 * 
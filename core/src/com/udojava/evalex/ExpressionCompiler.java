@@ -0,0 +1,506 @@
+/*
+ * Copyright 2018 Udo Klimaschewski
+ * 
+ * http://UdoJava.com/
+ * http://about.me/udo.klimaschewski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package com.udojava.evalex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.udojava.evalex.Expression.ExpressionException;
+
+/**
+ * Compiles an {@link Expression} into a JVM class.<br>
+ * <br>
+ * The expression is first compiled into the same program that
+ * {@link DoubleEvaluator} interprets. Every instruction of that program is
+ * then translated into the equivalent JVM bytecode of a class implementing
+ * {@link CompiledExpression}, so the JIT can inline and optimize the
+ * expression like hand written code. Arithmetic is inlined, all other
+ * operators and functions are calls to {@link DoubleMath} and
+ * {@link Math}.<br>
+ * <br>
+ * The generated classes are stateless and can be shared between threads.
+ * Expressions that can not be compiled get a synchronized implementation
+ * that delegates to a fallback {@link DoubleEvaluator}.<br>
+ * <br>
+ * This class needs to define classes at runtime and is therefore not
+ * available on GWT.
+ */
+public final class ExpressionCompiler {
+
+	/**
+	 * The maximum number of variables a compiled expression can take.
+	 */
+	public static final int MAX_VARIABLES = 4;
+
+	private static final String CLASS_NAME_PREFIX = "com.udojava.evalex.GeneratedExpression";
+	private static final String OBJECT = "java/lang/Object";
+	private static final String INTERFACE = "com/udojava/evalex/CompiledExpression";
+	private static final String DOUBLE_MATH = "com/udojava/evalex/DoubleMath";
+	private static final String MATH = "java/lang/Math";
+
+	private static int classCount = 0;
+
+	private ExpressionCompiler() {
+	}
+
+	/**
+	 * Compiles an expression.
+	 *
+	 * @param expression
+	 *            The expression to compile.
+	 * @param variables
+	 *            The variables to bind to the parameters of
+	 *            {@link CompiledExpression#eval(double, double, double, double)}
+	 *            , in that order. They need not be declared in the
+	 *            expression. Other variables used by the expression are
+	 *            compiled as constants with their current value.
+	 * @return The compiled expression.
+	 */
+	public static CompiledExpression compile(Expression expression, String... variables) {
+		if (variables.length > MAX_VARIABLES) {
+			throw new ExpressionException("At most " + MAX_VARIABLES + " variables can be compiled");
+		}
+		DoubleProgram program = DoubleProgram.compile(expression, variables);
+		if (program == null) {
+			return new FallbackExpression(expression, variables);
+		}
+
+		int[] locals = new int[program.variables.length];
+		double[] values = new double[program.variables.length];
+		List<String> parameters = Arrays.asList(variables);
+		for (int i = 0; i < locals.length; i++) {
+			int parameter = DoubleProgram.indexOfIgnoreCase(parameters, program.variables[i]);
+			if (parameter >= 0) {
+				locals[i] = 1 + parameter * 2;
+			} else {
+				locals[i] = -1;
+				values[i] = expression.getVariable(program.variables[i]).eval().doubleValue();
+			}
+		}
+
+		String className = nextClassName();
+		byte[] bytes = new ClassWriter(className.replace('.', '/'), program, locals, values).toByteArray();
+		try {
+			Class<?> type = new Loader(ExpressionCompiler.class.getClassLoader()).define(className, bytes);
+			return (CompiledExpression) type.getDeclaredConstructor().newInstance();
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Could not instantiate compiled expression", e);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("Could not instantiate compiled expression", e.getCause());
+		} catch (InstantiationException e) {
+			throw new IllegalStateException("Could not instantiate compiled expression", e);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Could not instantiate compiled expression", e);
+		}
+	}
+
+	private static synchronized String nextClassName() {
+		return CLASS_NAME_PREFIX + (++classCount);
+	}
+
+	/**
+	 * Class loader for a single generated class, so the class can be garbage
+	 * collected together with its expression.
+	 */
+	private static final class Loader extends ClassLoader {
+
+		Loader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+	/**
+	 * Implementation for expressions that can not be compiled.
+	 */
+	private static final class FallbackExpression implements CompiledExpression {
+
+		private final Expression expression;
+		private final String[] variables;
+
+		FallbackExpression(Expression expression, String[] variables) {
+			this.expression = expression;
+			this.variables = variables;
+		}
+
+		public synchronized double eval(double v0, double v1, double v2, double v3) {
+			if (variables.length > 0)
+				expression.setVariable(variables[0], new BigDecimal(v0));
+			if (variables.length > 1)
+				expression.setVariable(variables[1], new BigDecimal(v1));
+			if (variables.length > 2)
+				expression.setVariable(variables[2], new BigDecimal(v2));
+			if (variables.length > 3)
+				expression.setVariable(variables[3], new BigDecimal(v3));
+			BigDecimal result = expression.eval();
+			return result == null ? Double.NaN : result.doubleValue();
+		}
+	}
+
+	/**
+	 * Writes the class file of a compiled expression.
+	 */
+	private static final class ClassWriter {
+
+		private static final int ACC_PUBLIC = 0x0001;
+		private static final int ACC_FINAL = 0x0010;
+		private static final int ACC_SUPER = 0x0020;
+
+		private static final int CONSTANT_UTF8 = 1;
+		private static final int CONSTANT_DOUBLE = 6;
+		private static final int CONSTANT_CLASS = 7;
+		private static final int CONSTANT_METHODREF = 10;
+		private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+		private static final int ICONST_0 = 0x03;
+		private static final int BIPUSH = 0x10;
+		private static final int DCONST_0 = 0x0e;
+		private static final int DCONST_1 = 0x0f;
+		private static final int LDC2_W = 0x14;
+		private static final int DLOAD = 0x18;
+		private static final int ALOAD_0 = 0x2a;
+		private static final int DADD = 0x63;
+		private static final int DSUB = 0x67;
+		private static final int DMUL = 0x6b;
+		private static final int DNEG = 0x77;
+		private static final int DCMPL = 0x97;
+		private static final int IFEQ = 0x99;
+		private static final int GOTO = 0xa7;
+		private static final int DRETURN = 0xaf;
+		private static final int RETURN = 0xb1;
+		private static final int INVOKESPECIAL = 0xb7;
+		private static final int INVOKESTATIC = 0xb8;
+
+		private final String className;
+		private final DoubleProgram program;
+		private final int[] locals;
+		private final double[] values;
+
+		private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+		private final DataOutputStream poolOut = new DataOutputStream(pool);
+		private final Map<String, Integer> poolIndices = new HashMap<String, Integer>();
+		private int poolCount = 1;
+
+		ClassWriter(String className, DoubleProgram program, int[] locals, double[] values) {
+			this.className = className;
+			this.program = program;
+			this.locals = locals;
+			this.values = values;
+		}
+
+		byte[] toByteArray() {
+			try {
+				int thisClass = classConstant(className);
+				int superClass = classConstant(OBJECT);
+				int interfaceClass = classConstant(INTERFACE);
+				int codeName = utf8Constant("Code");
+				int constructorName = utf8Constant("<init>");
+				int constructorDescriptor = utf8Constant("()V");
+				int evalName = utf8Constant("eval");
+				int evalDescriptor = utf8Constant("(DDDD)D");
+
+				byte[] constructor = constructorCode();
+				byte[] eval = evalCode();
+
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(bytes);
+				out.writeInt(0xCAFEBABE);
+				out.writeShort(0);
+				out.writeShort(49);
+				out.writeShort(poolCount);
+				poolOut.flush();
+				pool.writeTo(out);
+				out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+				out.writeShort(thisClass);
+				out.writeShort(superClass);
+				out.writeShort(1);
+				out.writeShort(interfaceClass);
+				out.writeShort(0);
+				out.writeShort(2);
+				writeMethod(out, constructorName, constructorDescriptor, codeName, 1, 1, constructor);
+				writeMethod(out, evalName, evalDescriptor, codeName, program.maxStack * 2 + 4,
+						1 + MAX_VARIABLES * 2, eval);
+				out.writeShort(0);
+				out.flush();
+				return bytes.toByteArray();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private void writeMethod(DataOutputStream out, int name, int descriptor, int codeName, int maxStack,
+				int maxLocals, byte[] code) throws IOException {
+			out.writeShort(ACC_PUBLIC);
+			out.writeShort(name);
+			out.writeShort(descriptor);
+			out.writeShort(1);
+			out.writeShort(codeName);
+			out.writeInt(12 + code.length);
+			out.writeShort(maxStack);
+			out.writeShort(maxLocals);
+			out.writeInt(code.length);
+			out.write(code);
+			out.writeShort(0);
+			out.writeShort(0);
+		}
+
+		private byte[] constructorCode() throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(ALOAD_0);
+			out.writeByte(INVOKESPECIAL);
+			out.writeShort(methodConstant(OBJECT, "<init>", "()V"));
+			out.writeByte(RETURN);
+			out.flush();
+			return bytes.toByteArray();
+		}
+
+		/**
+		 * Translates the program in two passes. The first pass only records
+		 * the bytecode offset of every instruction, the second one writes the
+		 * code with the resolved jump offsets.
+		 */
+		private byte[] evalCode() throws IOException {
+			int[] code = program.code;
+			int[] offsets = new int[code.length + 1];
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			for (int pass = 0; pass < 2; pass++) {
+				bytes.reset();
+				int pc = 0;
+				while (pc < code.length) {
+					out.flush();
+					offsets[pc] = bytes.size();
+					pc = writeInstruction(out, pc, offsets, bytes.size());
+				}
+				out.flush();
+				offsets[code.length] = bytes.size();
+				out.writeByte(DRETURN);
+				out.flush();
+			}
+			return bytes.toByteArray();
+		}
+
+		private int writeInstruction(DataOutputStream out, int pc, int[] offsets, int offset) throws IOException {
+			int[] code = program.code;
+			int op = code[pc++];
+			switch (op) {
+			case DoubleProgram.CONST:
+				writeConstant(out, program.constants[code[pc++]]);
+				break;
+			case DoubleProgram.LOAD: {
+				int slot = code[pc++];
+				if (locals[slot] < 0) {
+					writeConstant(out, values[slot]);
+				} else {
+					out.writeByte(DLOAD);
+					out.writeByte(locals[slot]);
+				}
+				break;
+			}
+			case DoubleProgram.JUMP:
+				out.writeByte(GOTO);
+				out.writeShort(offsets[code[pc++]] - offset);
+				break;
+			case DoubleProgram.JUMP_IF_ZERO:
+				out.writeByte(DCONST_0);
+				out.writeByte(DCMPL);
+				out.writeByte(IFEQ);
+				out.writeShort(offsets[code[pc++]] - (offset + 2));
+				break;
+			case DoubleProgram.ADD:
+				out.writeByte(DADD);
+				break;
+			case DoubleProgram.SUBTRACT:
+				out.writeByte(DSUB);
+				break;
+			case DoubleProgram.MULTIPLY:
+				out.writeByte(DMUL);
+				break;
+			case DoubleProgram.NEGATE:
+				out.writeByte(DNEG);
+				break;
+			case DoubleProgram.DIVIDE:
+				writeCall(out, DOUBLE_MATH, "divide", "(DD)D");
+				break;
+			case DoubleProgram.REMAINDER:
+				writeCall(out, DOUBLE_MATH, "remainder", "(DD)D");
+				break;
+			case DoubleProgram.POW:
+				writeCall(out, DOUBLE_MATH, "pow", "(DD)D");
+				break;
+			case DoubleProgram.AND:
+				writeCall(out, DOUBLE_MATH, "and", "(DD)D");
+				break;
+			case DoubleProgram.OR:
+				writeCall(out, DOUBLE_MATH, "or", "(DD)D");
+				break;
+			case DoubleProgram.GREATER:
+				writeCall(out, DOUBLE_MATH, "greater", "(DD)D");
+				break;
+			case DoubleProgram.GREATER_EQUAL:
+				writeCall(out, DOUBLE_MATH, "greaterEqual", "(DD)D");
+				break;
+			case DoubleProgram.LESS:
+				writeCall(out, DOUBLE_MATH, "less", "(DD)D");
+				break;
+			case DoubleProgram.LESS_EQUAL:
+				writeCall(out, DOUBLE_MATH, "lessEqual", "(DD)D");
+				break;
+			case DoubleProgram.EQUAL:
+				writeCall(out, DOUBLE_MATH, "equal", "(DD)D");
+				break;
+			case DoubleProgram.NOT_EQUAL:
+				writeCall(out, DOUBLE_MATH, "notEqual", "(DD)D");
+				break;
+			case DoubleProgram.RANDOM:
+				writeCall(out, DOUBLE_MATH, "random", "()D");
+				break;
+			case DoubleProgram.ATAN2:
+				writeCall(out, DOUBLE_MATH, "atan2", "(DD)D");
+				break;
+			case DoubleProgram.MAX:
+			case DoubleProgram.MIN: {
+				int count = code[pc++];
+				for (int i = 1; i < count; i++) {
+					writeCall(out, MATH, op == DoubleProgram.MAX ? "max" : "min", "(DD)D");
+				}
+				break;
+			}
+			case DoubleProgram.ABS:
+				writeCall(out, MATH, "abs", "(D)D");
+				break;
+			case DoubleProgram.FLOOR:
+				writeCall(out, MATH, "floor", "(D)D");
+				break;
+			case DoubleProgram.CEILING:
+				writeCall(out, MATH, "ceil", "(D)D");
+				break;
+			case DoubleProgram.ROUND:
+				if (program.roundingMode <= 5) {
+					out.writeByte(ICONST_0 + program.roundingMode);
+				} else {
+					out.writeByte(BIPUSH);
+					out.writeByte(program.roundingMode);
+				}
+				writeCall(out, DOUBLE_MATH, "round", "(DDI)D");
+				break;
+			default:
+				if (op < DoubleProgram.NOT || op > DoubleProgram.SQRT) {
+					throw new ExpressionException("Unknown opcode " + op);
+				}
+				String name = DoubleProgram.FUNCTIONS[op - DoubleProgram.NOT].toLowerCase(Locale.ROOT);
+				writeCall(out, DOUBLE_MATH, name, "(D)D");
+			}
+			return pc;
+		}
+
+		private void writeConstant(DataOutputStream out, double value) throws IOException {
+			if (Double.doubleToRawLongBits(value) == 0L) {
+				out.writeByte(DCONST_0);
+			} else if (value == 1) {
+				out.writeByte(DCONST_1);
+			} else {
+				out.writeByte(LDC2_W);
+				out.writeShort(doubleConstant(value));
+			}
+		}
+
+		private void writeCall(DataOutputStream out, String owner, String name, String descriptor)
+				throws IOException {
+			out.writeByte(INVOKESTATIC);
+			out.writeShort(methodConstant(owner, name, descriptor));
+		}
+
+		private int utf8Constant(String value) throws IOException {
+			Integer index = poolIndices.get("U" + value);
+			if (index == null) {
+				poolOut.writeByte(CONSTANT_UTF8);
+				poolOut.writeUTF(value);
+				index = poolCount++;
+				poolIndices.put("U" + value, index);
+			}
+			return index;
+		}
+
+		private int classConstant(String name) throws IOException {
+			Integer index = poolIndices.get("C" + name);
+			if (index == null) {
+				int nameIndex = utf8Constant(name);
+				poolOut.writeByte(CONSTANT_CLASS);
+				poolOut.writeShort(nameIndex);
+				index = poolCount++;
+				poolIndices.put("C" + name, index);
+			}
+			return index;
+		}
+
+		private int methodConstant(String owner, String name, String descriptor) throws IOException {
+			String key = "M" + owner + "." + name + descriptor;
+			Integer index = poolIndices.get(key);
+			if (index == null) {
+				int ownerIndex = classConstant(owner);
+				int nameIndex = utf8Constant(name);
+				int descriptorIndex = utf8Constant(descriptor);
+				poolOut.writeByte(CONSTANT_NAME_AND_TYPE);
+				poolOut.writeShort(nameIndex);
+				poolOut.writeShort(descriptorIndex);
+				int nameAndType = poolCount++;
+				poolOut.writeByte(CONSTANT_METHODREF);
+				poolOut.writeShort(ownerIndex);
+				poolOut.writeShort(nameAndType);
+				index = poolCount++;
+				poolIndices.put(key, index);
+			}
+			return index;
+		}
+
+		private int doubleConstant(double value) throws IOException {
+			String key = "D" + Double.doubleToRawLongBits(value);
+			Integer index = poolIndices.get(key);
+			if (index == null) {
+				poolOut.writeByte(CONSTANT_DOUBLE);
+				poolOut.writeDouble(value);
+				index = poolCount;
+				poolCount += 2;
+				poolIndices.put(key, index);
+			}
+			return index;
+		}
+	}
+}